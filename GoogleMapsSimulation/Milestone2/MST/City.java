@@ -0,0 +1,29 @@
+class City {
+    final int id;
+    final String name;
+    final String state;
+
+    // Cities are created by CityRegistry only, so there is exactly one instance per id.
+    City(int id, String name, String state) {
+        this.id = id;
+        this.name = name;
+        this.state = state;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        return id == ((City) obj).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
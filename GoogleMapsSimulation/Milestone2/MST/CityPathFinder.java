@@ -108,40 +108,41 @@ class Pair implements Comparable<Pair>{
 
 public class CityPathFinder {
     private static Map<String, Double> dijkstra(Graph graph, String start, Map<String, String> predecessors) {
+        String[] cities = graph.getAllCities().toArray(new String[0]);
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < cities.length; i++) {
+            ids.put(cities[i], i);
+        }
+
         Map<String, Double> distances = new HashMap<>();
-        PriorityQueue<String> queue = new PriorityQueue<>(Comparator.comparingDouble(distances::get));
-        Set<String> visited = new HashSet<>();
+        double[] distance = new double[cities.length];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        IndexedMinHeap queue = new IndexedMinHeap(cities.length);
 
         distances.put(start, 0.0);
-        queue.offer(start);
+        Integer startId = ids.get(start);
+        if (startId == null) {
+            return distances;
+        }
+        distance[startId] = 0.0;
+        queue.insert(startId, 0.0);
 
         while (!queue.isEmpty()) {
-            String current = queue.poll();
-            // System.out.println(queue);
-            if (visited.contains(current)) {
-                System.out.println("TEst");
-                continue;
-            }
-
-            visited.add(current);
-            String nextCity = "";
-            for (Map.Entry<String, Double> neighbor : graph.getNeighbors(current).entrySet()) {
-                nextCity = neighbor.getKey();
-
-                double newDistance = distances.get(current) + neighbor.getValue();
-
-                System.out.println(current+" -- "+ nextCity+" -- "+neighbor.getValue()+" -- "+distances.get(current) +" -- "+newDistance +" -- "+distances.getOrDefault(nextCity, Double.POSITIVE_INFINITY));
-                if (newDistance < distances.getOrDefault(nextCity, Double.POSITIVE_INFINITY)) {
-                    distances.put(nextCity, newDistance);
-                    predecessors.put(nextCity, current);
-                    //queue.offer(nextCity);
-                    if (!queue.contains(nextCity))   queue.offer(nextCity);
-                    System.out.println(queue);
-                    System.out.println(distances);
+            int current = queue.poll();
+            String currentCity = cities[current];
+            distances.put(currentCity, distance[current]);
+
+            for (Map.Entry<String, Double> neighbor : graph.getNeighbors(currentCity).entrySet()) {
+                String nextCity = neighbor.getKey();
+                int next = ids.get(nextCity);
+
+                double newDistance = distance[current] + neighbor.getValue();
+                if (newDistance < distance[next]) {
+                    distance[next] = newDistance;
+                    predecessors.put(nextCity, currentCity);
+                    queue.push(next, newDistance);
                 }
             }
-
-            // System.out.println(current +" --> "+nextCity);
         }
 
         return distances;
@@ -241,20 +242,22 @@ static class Edge {
     static Graph primsAlgo(Graph g) {
     Graph MST = new Graph();
 
-    PriorityQueue<Node> queue = new PriorityQueue<>(Comparator.comparingDouble(o -> o.dis));
-
-    String startNode = g.getAllCities().iterator().next();
-    System.out.println("Start Node: " + startNode);
+    String[] cities = g.getAllCities().toArray(new String[0]);
+    Map<String, Integer> ids = new HashMap<>();
+    for (int i = 0; i < cities.length; i++) {
+        ids.put(cities[i], i);
+    }
 
-    // Set to keep track of visited vertices
-    Set<String> visited = new HashSet<>();
+    // key[v] is the cheapest known edge from the tree to v, parent[v] its other end
+    IndexedMinHeap queue = new IndexedMinHeap(cities.length);
+    int[] parent = new int[cities.length];
+    Arrays.fill(parent, -1);
 
-    // Initial inputs from startNode
-    for (Map.Entry<String, Double> neighbor : g.getNeighbors(startNode).entrySet()) {
-        queue.add(new Node(startNode, neighbor.getKey(), neighbor.getValue()));
-    }
+    String startNode = cities[0];
+    System.out.println("Start Node: " + startNode);
 
-    visited.add(startNode);
+    // Vertices already in the tree
+    boolean[] visited = new boolean[cities.length];
 
     double totalSum = 0.0;
     int num_edges = 0;
@@ -262,38 +265,35 @@ static class Edge {
     // Create an adjacency list to store the MST
     Map<String, List<Edge>> adjacencyList = new HashMap<>();
 
-    while (!queue.isEmpty() && visited.size() < g.getAllCities().size()) {
-        Node newEdge = queue.poll();
-
-        // Ensure that both vertices of the edge are not visited
-        if (visited.contains(newEdge.val2)) {
-            continue;
-        }
-
-        // Add vertices to the visited set
-        visited.add(newEdge.val1);
-        visited.add(newEdge.val2);
-
-        //System.out.println("Edge: " + newEdge.val1 + " -> " + newEdge.val2 + ", Distance: " + newEdge.dis); // Print the edge and distance
+    queue.insert(0, 0.0);
+    while (!queue.isEmpty()) {
+        int node = queue.poll();
+        visited[node] = true;
 
-        MST.addEdge(newEdge.val1, newEdge.val2, newEdge.dis);
-        ++num_edges;
-        totalSum += newEdge.dis;
-        totalSum = Double.parseDouble(String.format("%.2f", totalSum));
+        if (parent[node] != -1) {
+            String from = cities[parent[node]];
+            String to = cities[node];
+            double dis = queue.key(node);
 
-        // Build the adjacency list
-        Edge forwardEdge = new Edge(newEdge.val2, newEdge.dis);
-        Edge backwardEdge = new Edge(newEdge.val1, newEdge.dis);
+            MST.addEdge(from, to, dis);
+            ++num_edges;
+            totalSum += dis;
+            totalSum = Double.parseDouble(String.format("%.2f", totalSum));
 
-        adjacencyList.computeIfAbsent(newEdge.val1, k -> new ArrayList<>()).add(forwardEdge);
-        adjacencyList.computeIfAbsent(newEdge.val2, k -> new ArrayList<>()).add(backwardEdge);
+            // Build the adjacency list
+            Edge forwardEdge = new Edge(to, dis);
+            Edge backwardEdge = new Edge(from, dis);
 
-        // Add neighbors of the newly added vertex to the queue
-        for (Map.Entry<String, Double> neighbor : g.getNeighbors(newEdge.val2).entrySet()) {
-            String nextCity = neighbor.getKey();
-            Double dis = neighbor.getValue();
+            adjacencyList.computeIfAbsent(from, k -> new ArrayList<>()).add(forwardEdge);
+            adjacencyList.computeIfAbsent(to, k -> new ArrayList<>()).add(backwardEdge);
+        }
 
-            queue.add(new Node(newEdge.val2, nextCity, dis));
+        // Offer the neighbors of the newly added vertex, keeping only the cheapest edge to each
+        for (Map.Entry<String, Double> neighbor : g.getNeighbors(cities[node]).entrySet()) {
+            int next = ids.get(neighbor.getKey());
+            if (!visited[next] && queue.push(next, neighbor.getValue())) {
+                parent[next] = node;
+            }
         }
     }
 
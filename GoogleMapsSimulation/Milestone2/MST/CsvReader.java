@@ -0,0 +1,298 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Comma-separated rows read straight out of a memory-mapped file, one row at a time.
+// next() only records where each field starts and ends; numbers are parsed from the bytes,
+// and text becomes a String only when asked for, through a cache keyed by content, so each
+// distinct city name in a file of millions of rows is allocated once.
+// Like the String.split(",") it replaces there is no quoting, and empty fields at the end of
+// a row are not counted. Lines end in \n or \r\n; blank lines are skipped. Not thread-safe.
+final class CsvReader implements Closeable {
+    // Bytes mapped at a time; files larger than this are read through consecutive windows,
+    // and a single row has to fit in one.
+    private static final int WINDOW = 1 << 30;
+    // Distinct strings kept in the cache; text beyond that is allocated every time.
+    private static final int CACHE_LIMIT = 1 << 16;
+    // Lowercase form of every ASCII byte, or -1 for the whitespace normalized() drops.
+    private static final byte[] NORMALIZED = new byte[128];
+    // Exact doubles, so a mantissa below 2^53 divided by one of them is correctly rounded.
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    static {
+        for (int b = 0; b < NORMALIZED.length; b++) {
+            NORMALIZED[b] = Character.isWhitespace((char) b) ? -1 : (byte) Character.toLowerCase((char) b);
+        }
+    }
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    // Start of the next row, relative to the window.
+    private int position;
+
+    private int fieldCount;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private byte[] scratch = new byte[64];
+    private String[] cache = new String[1024];
+    private int cached;
+
+    private CsvReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        map(0);
+    }
+
+    static CsvReader open(String filePath) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        try {
+            return new CsvReader(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void map(long start) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start));
+        windowStart = start;
+        position = 0;
+    }
+
+    // Moves to the next non-blank row; false at the end of the file.
+    public boolean next() throws IOException {
+        while (windowStart + position < size) {
+            int limit = window.limit();
+            int i = position;
+            int fieldStart = i;
+            fieldCount = 0;
+            while (i < limit) {
+                byte b = window.get(i);
+                if (b == '\n') {
+                    break;
+                }
+                if (b == ',') {
+                    addField(fieldStart, i);
+                    fieldStart = i + 1;
+                }
+                i++;
+            }
+            if (i == limit && windowStart + limit < size) {
+                // The row runs past this window, so map again starting at the row.
+                if (position == 0) {
+                    throw new IOException("Row at byte " + windowStart + " is longer than " + WINDOW + " bytes");
+                }
+                map(windowStart + position);
+                continue;
+            }
+
+            int end = i > position && window.get(i - 1) == '\r' ? i - 1 : i;
+            boolean blank = end == position;
+            addField(fieldStart, Math.max(fieldStart, end));
+            position = i + 1;
+            if (blank) {
+                continue;
+            }
+            while (fieldCount > 0 && starts[fieldCount - 1] == ends[fieldCount - 1]) {
+                fieldCount--;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    // The field exactly as it is in the file.
+    public String text(int field) {
+        return text(field, false);
+    }
+
+    // The field lowercased with all whitespace removed, like toLowerCase().replaceAll("\\s", "").
+    public String normalized(int field) {
+        return text(field, true);
+    }
+
+    // Every field of the row as its own String, for messages about a bad row.
+    public String[] fields() {
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = text(i);
+        }
+        return fields;
+    }
+
+    private String text(int field, boolean normalize) {
+        Objects.checkIndex(field, fieldCount);
+        int start = starts[field];
+        int end = ends[field];
+        if (scratch.length < end - start) {
+            scratch = new byte[Math.max(end - start, scratch.length * 2)];
+        }
+        int length = 0;
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            byte b = window.get(i);
+            if (b < 0) {
+                return decode(start, end, normalize);
+            }
+            if (normalize) {
+                b = NORMALIZED[b];
+                if (b < 0) {
+                    continue;
+                }
+            }
+            scratch[length++] = b;
+            hash = 31 * hash + b;
+        }
+        return cached(length, hash);
+    }
+
+    // Fields with non-ASCII bytes go through a real UTF-8 decode and are not cached.
+    private String decode(int start, int end, boolean normalize) {
+        byte[] bytes = new byte[end - start];
+        window.get(start, bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        if (!normalize) {
+            return value;
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    // Open addressing on String.hashCode, which for ASCII is the hash computed from the bytes.
+    private String cached(int length, int hash) {
+        int mask = cache.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            String candidate = cache[slot];
+            if (candidate == null) {
+                String value = new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+                if (cached < CACHE_LIMIT) {
+                    cache[slot] = value;
+                    if (++cached * 2 > cache.length) {
+                        rehash();
+                    }
+                }
+                return value;
+            }
+            if (candidate.hashCode() == hash && matches(candidate, length)) {
+                return candidate;
+            }
+        }
+    }
+
+    private boolean matches(String candidate, int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate.charAt(i) != scratch[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        String[] old = cache;
+        cache = new String[old.length * 2];
+        int mask = cache.length - 1;
+        for (String value : old) {
+            if (value != null) {
+                int slot = value.hashCode() & mask;
+                while (cache[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                cache[slot] = value;
+            }
+        }
+    }
+
+    // Same result as Double.parseDouble(field), including surrounding whitespace being ignored.
+    // Plain decimals with up to 15 significant digits are parsed from the bytes; anything else
+    // (exponents, long mantissas, NaN, malformed input) falls back to Double.parseDouble.
+    public double number(int field) {
+        Objects.checkIndex(field, fieldCount);
+        int start = starts[field];
+        int end = ends[field];
+        while (start < end && (window.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (window.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (window.get(i) == '-' || window.get(i) == '+')) {
+            negative = window.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = window.get(i);
+            if (b >= '0' && b <= '9') {
+                anyDigit = true;
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (fraction) {
+                    scale++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return parseSlowly(start, end);
+            }
+            if (digits > 15 || scale >= POWERS_OF_TEN.length) {
+                return parseSlowly(start, end);
+            }
+        }
+        if (!anyDigit) {
+            return parseSlowly(start, end);
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private double parseSlowly(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        window.get(start, bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -5,50 +5,6 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
-class City {
-    String name;
-    String state;
-
-    public City(String name, String state) {
-        this.name = name;
-        this.state = state;
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-        City city = (City) obj;
-        return name.equals(city.name) && state.equals(city.state);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(name, state);
-    }
-
-    @Override
-    public String toString() {
-        return name;
-    }
-}
-
-class Edge {
-    City source;
-    City destination;
-    double distance;
-    double speed;
-    double gradient;
-
-    public Edge(City source, City destination, double distance, double speed, double gradient) {
-        this.source = source;
-        this.destination = destination;
-        this.distance = distance;
-        this.speed = speed;
-        this.gradient = gradient;
-    }
-}
-
 class WeatherData {
     Map<LocalDateTime, String> hourlyConditions;
 
@@ -58,44 +14,50 @@ class WeatherData {
 }
 
 public class ShortestPathFinder {
-    private Map<City, List<Edge>> graph;
-    private static Map<City, WeatherData> weatherDataMap;
+    private RoadGraph graph;
+    private RoadGraph.Builder graphBuilder;
+    private CityRegistry cities;
+    private static WeatherData[] weatherData;
 
     public ShortestPathFinder() {
-        this.graph = new LinkedHashMap<>();
-        this.weatherDataMap = new HashMap<>();
+        this.graph = new RoadGraph.Builder().build();
+        this.cities = new CityRegistry();
+        this.weatherData = new WeatherData[0];
     }
 
-    public void addEdge(City source, City destination, double distance, double speed, double gradient) {
-        source.state = source.state.isEmpty() ? destination.state : source.state;
-        destination.state = destination.state.isEmpty() ? source.state : destination.state;
-        graph.computeIfAbsent(source, k -> new ArrayList<>()).add(new Edge(source, destination, distance, speed, gradient));
-        graph.computeIfAbsent(destination, k -> new ArrayList<>()).add(new Edge(destination, source, distance, speed, gradient));
+    public void addEdge(String sourceName, String sourceState, String destinationName, String destinationState,
+                        double distance, double speed, double gradient) {
+        sourceState = sourceState.isEmpty() ? destinationState : sourceState;
+        destinationState = destinationState.isEmpty() ? sourceState : destinationState;
+        graphBuilder.addEdge(cities.intern(sourceName, sourceState), cities.intern(destinationName, destinationState),
+                distance, speed, gradient);
     }
 
     public void readDataFromCSV(String csvFilePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(csvFilePath))) {
-            String line;
+        graphBuilder = new RoadGraph.Builder();
+        try (CsvReader csv = CsvReader.open(csvFilePath)) {
             boolean firstLine = true;
-            while ((line = br.readLine()) != null) {
+            while (csv.next()) {
                 if (firstLine) {
                     firstLine = false;
                     continue;
                 }
-                String[] parts = line.split(",");
-                String stateOrigin = parts[0].trim().toLowerCase().replaceAll("\\s", "");
-                String stateDestination = parts[1].trim().toLowerCase().replaceAll("\\s", "");
-                String cityOrigin = parts[2].trim().toLowerCase().replaceAll("\\s", "");
-                String cityDestination = parts[3].trim().toLowerCase().replaceAll("\\s", "");
-                double distance = Double.parseDouble(parts[4].trim());
-                double speed = Double.parseDouble(parts[5].trim());
-                double gradient = Double.parseDouble(parts[8].trim());
-
-                addEdge(new City(cityOrigin, stateOrigin), new City(cityDestination, stateDestination), distance, speed, gradient);
+                String stateOrigin = csv.normalized(0);
+                String stateDestination = csv.normalized(1);
+                String cityOrigin = csv.normalized(2);
+                String cityDestination = csv.normalized(3);
+                double distance = csv.number(4);
+                double speed = csv.number(5);
+                double gradient = csv.number(8);
+
+                addEdge(cityOrigin, stateOrigin, cityDestination, stateDestination, distance, speed, gradient);
             }
         } catch (IOException | NumberFormatException e) {
             e.printStackTrace(); // Consider logging or displaying a more user-friendly message.
         }
+        graphBuilder.ensureNodes(cities.size());
+        graph = graphBuilder.build();
+        graphBuilder = null;
     }
 
     public void readWeatherData(String weatherFilePath) {
@@ -110,51 +72,63 @@ public class ShortestPathFinder {
                     continue;
                 }
                 String[] parts = line.split(",");
-                String cityName = parts[1].trim().toLowerCase().replaceAll("\\s", "");
-                String stateName = parts[0].trim().toLowerCase().replaceAll("\\s", "");
+                String cityName = CityRegistry.normalize(parts[1]);
+                String stateName = CityRegistry.normalize(parts[0]);
 
-                WeatherData weatherData = new WeatherData();
+                WeatherData cityWeather = new WeatherData();
 
                 // Parse date-time and conditions for each hour
                 for (int i = 2; i < parts.length - 1; i++) {
                     String dateTimeString = (firstLineData[i]).trim();
 
-                    String conditions = parts[i + 1].trim().toLowerCase().replaceAll("\\s", "");
+                    String conditions = CityRegistry.normalize(parts[i + 1]);
                     LocalDateTime dateTime = LocalDateTime.parse(dateTimeString, DateTimeFormatter.ofPattern("MM/dd/yyyy H:mm", Locale.ENGLISH));
 
-                    weatherData.hourlyConditions.put(dateTime, conditions);
+                    cityWeather.hourlyConditions.put(dateTime, conditions);
+                }
+                int id = cities.intern(cityName, stateName);
+                if (id >= weatherData.length) {
+                    weatherData = Arrays.copyOf(weatherData, Math.max(cities.size(), weatherData.length * 2));
                 }
-                weatherDataMap.put(new City(cityName, stateName), weatherData);
+                weatherData[id] = cityWeather;
             }
         } catch (IOException | NumberFormatException e) {
             e.printStackTrace(); // Consider logging or displaying a more user-friendly message.
         }
     }
 
-    public Map<City, City> findShortestPaths(City start) {
-        Map<City, Double> distances = new HashMap<>();
-        Map<City, City> previousNodes = new HashMap<>();
-        PriorityQueue<City> priorityQueue = new PriorityQueue<>(Comparator.comparingDouble(distances::get));
-        Set<City> visited = new HashSet<>();
-
-        distances.put(start, 0.0);
-        priorityQueue.add(start);
+    private WeatherData weatherFor(int cityId) {
+        return cityId < weatherData.length ? weatherData[cityId] : null;
+    }
 
-        while (!priorityQueue.isEmpty()) {
-            City current = priorityQueue.poll();
+    public int[] findShortestPaths(int start) {
+        int n = graph.nodeCount();
+        double[] distances = new double[n];
+        int[] previousNodes = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(previousNodes, -1);
+        IndexedMinHeap priorityQueue = new IndexedMinHeap(n);
 
-            if (visited.contains(current)) continue;
+        if (start < 0 || start >= n) {
+            return previousNodes;
+        }
+        distances[start] = 0.0;
+        priorityQueue.insert(start, 0.0);
 
-            visited.add(current);
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        double[] edgeDistance = graph.distance;
+        while (!priorityQueue.isEmpty()) {
+            int current = priorityQueue.poll();
 
-            for (Edge edge : graph.getOrDefault(current, Collections.emptyList())) {
-                City neighbor = edge.destination;
-                double newDistance = distances.get(current) + edge.distance;
+            for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                int neighbor = targets[e];
+                double newDistance = distances[current] + edgeDistance[e];
 
-                if (!distances.containsKey(neighbor) || newDistance < distances.get(neighbor)) {
-                    distances.put(neighbor, newDistance);
-                    previousNodes.put(neighbor, current);
-                    priorityQueue.add(neighbor);
+                if (newDistance < distances[neighbor]) {
+                    distances[neighbor] = newDistance;
+                    previousNodes[neighbor] = current;
+                    priorityQueue.push(neighbor, newDistance);
                 }
             }
         }
@@ -162,17 +136,21 @@ public class ShortestPathFinder {
         return previousNodes;
     }
 
-    public List<City> getShortestPath(City start, City destination, Map<City, City> previousNodes) {
+    public boolean hasPath(int destination, int[] previousNodes) {
+        return destination >= 0 && destination < previousNodes.length && previousNodes[destination] != -1;
+    }
+
+    public List<City> getShortestPath(int start, int destination, int[] previousNodes) {
         List<City> path = new ArrayList<>();
-        City current = destination;
+        int current = destination;
 
-        while (current != null && !current.equals(start)) {
-            path.add(current);
-            current = previousNodes.get(current);
+        while (current != -1 && current != start) {
+            path.add(cities.city(current));
+            current = previousNodes[current];
         }
 
-        if (current != null && current.equals(start)) {
-            path.add(start);
+        if (current == start) {
+            path.add(cities.city(start));
             Collections.reverse(path);
         }
 
@@ -183,19 +161,11 @@ public class ShortestPathFinder {
         double distance = 0.0;
 
         for (int i = 0; i < path.size() - 1; i++) {
-            City current = path.get(i);
-            City next = path.get(i + 1);
-
-            if (graph.containsKey(current)) {
-                for (Edge edge : graph.get(current)) {
-                    if (edge.destination.equals(next)) {
-                        distance += edge.distance;
-                        break;
-                    }
-                }
+            int edge = graph.findEdge(path.get(i).id, path.get(i + 1).id);
+            if (edge != -1) {
+                distance += graph.distance[edge];
             } else {
                 System.out.println("The City name is not present in Data");
-                // Handle the case where the graph doesn't contain the current city
             }
         }
 
@@ -208,26 +178,26 @@ public class ShortestPathFinder {
         shortestPathFinder.readWeatherData("collected Weather.csv");
         Scanner scanner = new Scanner(System.in);
         System.out.print("Enter source city: ");
-        String startCity = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String startCity = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter source State: ");
-        String startState = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String startState = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter destination city: ");
-        String endCity = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String endCity = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter destination State: ");
-        String endState = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String endState = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter Start Time (format: MM/DD/YYYY hh:mm):");
         String startTime = scanner.nextLine();
         scanner.close();
-        City origin = new City(startCity, startState);
-        City destination = new City(endCity, endState);
+        int originId = shortestPathFinder.cities.find(startCity, startState);
+        int destinationId = shortestPathFinder.cities.find(endCity, endState);
 
-        Map<City, City> previousNodes = shortestPathFinder.findShortestPaths(origin);
+        int[] previousNodes = shortestPathFinder.findShortestPaths(originId);
 
-          if (previousNodes.containsKey(destination)) {
-            List<City> shortestPath = shortestPathFinder.getShortestPath(origin, destination, previousNodes);
+          if (shortestPathFinder.hasPath(destinationId, previousNodes)) {
+            List<City> shortestPath = shortestPathFinder.getShortestPath(originId, destinationId, previousNodes);
             double totalGallons = 0.0; // Declare totalGallons before using it
             double shortestDistance = shortestPathFinder.calculatePathDistance(shortestPath);
-            City previousCity = new City("","");
+            String previousCity = "";
             // Print the shortest path with distances between cities and weather conditions
             System.out.print("Shortest path: ");
             LocalDateTime currentDateTime = LocalDateTime.parse(startTime, DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm"));
@@ -243,13 +213,16 @@ public class ShortestPathFinder {
                     double gradient = 0.0;
                     double distance_weather=0.0;
                     double distance_gradient =0.0;
-                    for (Edge edge : shortestPathFinder.graph.get(shortestPath.get(i - 1))) {
-                        if (edge.destination.equals(city)) {
-                            distance = edge.distance;
-                            gradient = edge.gradient;
-                            distance_weather = checkWeatherCondition(distance,shortestPathFinder.getWeatherCondition(city, currentDateTime));
+                    RoadGraph graph = shortestPathFinder.graph;
+                    int previousId = shortestPath.get(i - 1).id;
+                    int cityId = city.id;
+                    for (int edge = graph.offsets[previousId]; edge < graph.offsets[previousId + 1]; edge++) {
+                        if (graph.targets[edge] == cityId) {
+                            distance = graph.distance[edge];
+                            gradient = graph.gradient[edge];
+                            distance_weather = checkWeatherCondition(distance,shortestPathFinder.getWeatherCondition(cityId, currentDateTime));
                             distance_gradient = distance_weather * (1+gradient);
-                            speed = edge.speed;
+                            speed = graph.speed[edge];
                             duration = distance_gradient / speed;
                             gallons = distance_gradient / 38;
                             break;
@@ -264,20 +237,20 @@ public class ShortestPathFinder {
                     System.out.println("\n-------------------");
                     System.out.printf("distance %.2f miles\n", distance);
                     System.out.printf("ETA: %s \n", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
-                    System.out.printf("Gallons required: %.2f \nWeather: %s\n", gallons, shortestPathFinder.getWeatherCondition(city, currentDateTime));
+                    System.out.printf("Gallons required: %.2f \nWeather: %s\n", gallons, shortestPathFinder.getWeatherCondition(cityId, currentDateTime));
                     //System.out.print("->");
                 }
-                previousCity = city;
+                previousCity = city.name;
             }
             System.out.println();
-            System.out.printf("Shortest distance from %s to %s: %.2f, total gallons: %.2f\n", origin, destination, shortestDistance, totalGallons);
+            System.out.printf("Shortest distance from %s to %s: %.2f, total gallons: %.2f\n", startCity, endCity, shortestDistance, totalGallons);
             System.out.printf("End Time: %s\n", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
         } else {
-            System.out.println("No path found from " + origin + " to " + destination);
+            System.out.println("No path found from " + startCity + " to " + endCity);
         }
     }
 
-    private String getWeatherCondition(City city, LocalDateTime dateTime) {
+    private String getWeatherCondition(int cityId, LocalDateTime dateTime) {
         
         int minutes = dateTime.getMinute();
         
@@ -290,9 +263,9 @@ public class ShortestPathFinder {
             dateTime = dateTime.plusHours(1);
             dateTime = dateTime.withMinute(0);
         }
-        WeatherData weatherData = weatherDataMap.get(city);
-        if (weatherData != null) {
-            return weatherData.hourlyConditions.get(dateTime);
+        WeatherData cityWeather = weatherFor(cityId);
+        if (cityWeather != null) {
+            return cityWeather.hourlyConditions.get(dateTime);
         }
         return "Unknown";
     }
@@ -1,78 +1,87 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
 
 public class nearest_neighbors {
 
-    private Map<String, Map<String, Double>> graph;
-
-    public nearest_neighbors(List<String[]> data) {
-        graph = new HashMap<>();
-
-        for (String[] entry : data) {
-            String city1 = entry[2].trim().toLowerCase().replaceAll("\\s", "");
-            String city2 = entry[3].trim().toLowerCase().replaceAll("\\s", "");
-            double distance = Double.parseDouble(entry[4]);
-
-            graph.computeIfAbsent(city1, k -> new HashMap<>()).put(city2, distance);
-            graph.computeIfAbsent(city2, k -> new HashMap<>()).put(city1, distance);
+    private RoadGraph graph;
+    private List<String> cities;
+    private Map<String, Integer> cityIds;
+
+    // roads as readDataFromCSV returns them: each city's neighbours with the road distance.
+    public nearest_neighbors(Map<String, Map<String, Double>> roads) {
+        // Later rows overwrite earlier ones in the map, so the graph is built from the settled map
+        cities = new ArrayList<>(roads.keySet());
+        cityIds = new HashMap<>();
+        for (int i = 0; i < cities.size(); i++) {
+            cityIds.put(cities.get(i), i);
         }
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        builder.ensureNodes(cities.size());
+        for (Map.Entry<String, Map<String, Double>> road : roads.entrySet()) {
+            int from = cityIds.get(road.getKey());
+            for (Map.Entry<String, Double> neighbor : road.getValue().entrySet()) {
+                builder.addEdge(from, cityIds.get(neighbor.getKey()), neighbor.getValue(), 0, 0);
+            }
+        }
+        graph = builder.build();
     }
 
+    // Dijkstra settles cities in order of distance, so the search stops after the k-th one.
     public List<String> findNearestCities(String startCity, int k) {
-        Map<String, Double> distances = new HashMap<>();
-        PriorityQueue<String> minHeap = new PriorityQueue<>(Comparator.comparingDouble(distances::get));
+        List<String> result = new ArrayList<>();
+        Integer start = cityIds.get(startCity);
+        if (start == null) {
+            return result;
+        }
 
-        distances.put(startCity, 0.0);
-        minHeap.offer(startCity);
+        int n = graph.nodeCount();
+        double[] distances = new double[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap minHeap = new IndexedMinHeap(n);
 
-        while (!minHeap.isEmpty()) {
-            String currentCity = minHeap.poll();
+        distances[start] = 0.0;
+        minHeap.insert(start, 0.0);
 
-            if (graph.containsKey(currentCity)) {
-                for (Map.Entry<String, Double> neighbor : graph.get(currentCity).entrySet()) {
-                    String nextCity = neighbor.getKey();
-                    double newDistance = distances.get(currentCity) + neighbor.getValue();
+        while (!minHeap.isEmpty() && result.size() < k) {
+            int currentCity = minHeap.poll();
 
-                    if (!distances.containsKey(nextCity) || newDistance < distances.get(nextCity)) {
-                        distances.put(nextCity, newDistance);
-                        minHeap.offer(nextCity);
-                    }
-                }
+            if (currentCity != start) {
+                result.add(String.format("%s --> %s, Distance: %.1f miles", startCity, cities.get(currentCity), distances[currentCity]));
             }
-        }
 
-        List<String> nearestCities = new ArrayList<>(distances.keySet());
-        nearestCities.remove(startCity);
+            for (int e = graph.offsets[currentCity]; e < graph.offsets[currentCity + 1]; e++) {
+                int nextCity = graph.targets[e];
+                double newDistance = distances[currentCity] + graph.distance[e];
 
-        // Sort by distance and return the first k cities
-        nearestCities.sort(Comparator.comparingDouble(distances::get));
-
-        List<String> result = new ArrayList<>();
-        for (String city : nearestCities) {
-            double distance = distances.get(city);
-            result.add(String.format("%s --> %s, Distance: %.1f miles", startCity, city, distance));
+                if (newDistance < distances[nextCity]) {
+                    distances[nextCity] = newDistance;
+                    minHeap.push(nextCity, newDistance);
+                }
+            }
         }
 
-        return result.subList(0, Math.min(k, result.size()));
+        return result;
     }
 
-    public static List<String[]> readDataFromCSV(String filePath) throws IOException {
-        List<String[]> data = new ArrayList<>();
+    // Every road of the connection file in both directions, keyed by normalized city name.
+    public static Map<String, Map<String, Double>> readDataFromCSV(String filePath) throws IOException {
+        Map<String, Map<String, Double>> roads = new LinkedHashMap<>();
         boolean firstLine = true;
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = br.readLine()) != null) {
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            while (csv.next()) {
                 if (firstLine) {
                     firstLine = false;
                     continue;
                 }
-                String[] values = line.split(",");
-                data.add(values);
+                String city1 = csv.normalized(2);
+                String city2 = csv.normalized(3);
+                double distance = csv.number(4);
+
+                roads.computeIfAbsent(city1, k -> new LinkedHashMap<>()).put(city2, distance);
+                roads.computeIfAbsent(city2, k -> new LinkedHashMap<>()).put(city1, distance);
             }
         }
-        return data;
+        return roads;
     }
 
     public static void main(String[] args) {
@@ -89,8 +98,8 @@ public class nearest_neighbors {
             int k = scanner.nextInt();
 
             String filePath = "Final_Connection_V3.csv";
-            List<String[]> data = readDataFromCSV(filePath);
-            nearest_neighbors nearest_neighbors = new nearest_neighbors(data);
+            Map<String, Map<String, Double>> roads = readDataFromCSV(filePath);
+            nearest_neighbors nearest_neighbors = new nearest_neighbors(roads);
 
             List<String> nearestCities = nearest_neighbors.findNearestCities(startCity, k);
 
@@ -0,0 +1,165 @@
+import java.time.LocalDateTime;
+import java.util.*;
+
+// A* over the road graph with a great-circle lower bound to the destination.
+// Cities without coordinates get a bound of zero, which keeps the search exact
+// but means a node may have to be settled again once a shorter route to it shows up.
+public class AStar implements RouteEngine {
+    private static final double EARTH_RADIUS_MILES = 3958.8;
+
+    private final RoadGraph graph;
+    private final double[] latitude;
+    private final double[] longitude;
+    private final double scale;
+
+    public AStar(RoadGraph graph, CityRegistry cities) {
+        this.graph = graph;
+        int n = graph.nodeCount();
+        this.latitude = new double[n];
+        this.longitude = new double[n];
+        for (int node = 0; node < n; node++) {
+            City city = cities.city(node);
+            latitude[node] = city.hasCoordinates() ? Math.toRadians(city.latitude) : Double.NaN;
+            longitude[node] = city.hasCoordinates() ? Math.toRadians(city.longitude) : Double.NaN;
+        }
+        this.scale = computeScale();
+    }
+
+    public double scale() {
+        return scale;
+    }
+
+    // Lower bound on the road distance from node to target, in the same miles as RoadGraph.distance.
+    public double lowerBound(int node, int target) {
+        if (Double.isNaN(latitude[node]) || Double.isNaN(latitude[target])) {
+            return 0.0;
+        }
+        return scale * greatCircle(node, target);
+    }
+
+    @Override
+    public RoutePath route(int origin, int destination, LocalDateTime departure) {
+        int n = graph.nodeCount();
+        if (origin < 0 || origin >= n || destination < 0 || destination >= n) {
+            return RoutePath.notFound(0);
+        }
+        double[] distances = new double[n];
+        int[] previousNodes = new int[n];
+        int[] previousEdges = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap priorityQueue = new IndexedMinHeap(n);
+
+        distances[origin] = 0.0;
+        priorityQueue.insert(origin, lowerBound(origin, destination));
+
+        int settled = 0;
+        while (!priorityQueue.isEmpty()) {
+            int current = priorityQueue.poll();
+            settled++;
+            if (current == destination) {
+                return RoutePath.fromPredecessors(origin, destination, previousNodes, previousEdges, distances[destination], settled);
+            }
+
+            for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                int neighbor = graph.targets[e];
+                double newDistance = distances[current] + graph.distance[e];
+
+                if (newDistance < distances[neighbor]) {
+                    distances[neighbor] = newDistance;
+                    previousNodes[neighbor] = current;
+                    previousEdges[neighbor] = e;
+                    priorityQueue.push(neighbor, newDistance + lowerBound(neighbor, destination));
+                }
+            }
+        }
+
+        return RoutePath.notFound(settled);
+    }
+
+    // A road can never be shorter than the straight line between its ends, so a stretch
+    // whose ratio falls below this points at a geocoding mistake rather than a short road.
+    private static final double MIN_PLAUSIBLE_RATIO = 0.9;
+
+    // The largest factor that keeps scale * greatCircle below every road distance.
+    // Cities whose coordinates contradict their own roads are treated as unlocated first,
+    // otherwise a single misplaced city would flatten the bound for every query.
+    private double computeScale() {
+        int n = graph.nodeCount();
+        int[] violations = new int[n];
+        while (true) {
+            Arrays.fill(violations, 0);
+            double best = stretchRatios(violations);
+            int worst = -1;
+            for (int node = 0; node < n; node++) {
+                if (violations[node] > 0 && (worst == -1 || violations[node] > violations[worst])) {
+                    worst = node;
+                }
+            }
+            if (worst == -1) {
+                return best == Double.POSITIVE_INFINITY ? 0.0 : best;
+            }
+            latitude[worst] = Double.NaN;
+            longitude[worst] = Double.NaN;
+        }
+    }
+
+    // Returns the smallest road-to-great-circle ratio between consecutive located cities.
+    // Stretches through cities without coordinates are measured as a whole, so any route
+    // between two located cities is at least that ratio times their great-circle distance.
+    private double stretchRatios(int[] violations) {
+        int n = graph.nodeCount();
+        double best = Double.POSITIVE_INFINITY;
+        double[] distances = new double[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+        List<Integer> touched = new ArrayList<>();
+
+        for (int source = 0; source < n; source++) {
+            if (Double.isNaN(latitude[source])) {
+                continue;
+            }
+            distances[source] = 0.0;
+            touched.add(source);
+            queue.insert(source, 0.0);
+            while (!queue.isEmpty()) {
+                int current = queue.poll();
+                if (current != source && !Double.isNaN(latitude[current])) {
+                    double straight = greatCircle(source, current);
+                    if (straight > 0) {
+                        double ratio = distances[current] / straight;
+                        best = Math.min(best, ratio);
+                        if (ratio < MIN_PLAUSIBLE_RATIO) {
+                            violations[source]++;
+                        }
+                    }
+                    continue;
+                }
+                for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                    int neighbor = graph.targets[e];
+                    double newDistance = distances[current] + graph.distance[e];
+                    if (newDistance < distances[neighbor]) {
+                        if (distances[neighbor] == Double.POSITIVE_INFINITY) {
+                            touched.add(neighbor);
+                        }
+                        distances[neighbor] = newDistance;
+                        queue.push(neighbor, newDistance);
+                    }
+                }
+            }
+            for (int node : touched) {
+                distances[node] = Double.POSITIVE_INFINITY;
+            }
+            touched.clear();
+        }
+
+        return best;
+    }
+
+    private double greatCircle(int a, int b) {
+        double dLat = latitude[b] - latitude[a];
+        double dLon = longitude[b] - longitude[a];
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(latitude[a]) * Math.cos(latitude[b]) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_MILES * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+}
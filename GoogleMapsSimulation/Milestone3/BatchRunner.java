@@ -0,0 +1,252 @@
+import java.io.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Answers a whole file of route questions against one loaded graph and weather snapshot.
+// Each query line is
+//   originCity,originState,destinationCity,destinationState,MM/dd/yyyy HH:mm,preference[,id]
+// where preference is the algorithm number offered by Dijkstra.main and id defaults to the
+// line number. Queries run on a fixed pool with a bounded number in flight, and results are
+// written in input order as CSV, or as NDJSON when the output file ends in .ndjson or .jsonl.
+// Usage: java BatchRunner queries.csv [results.csv|results.ndjson|-] [threads]
+public class BatchRunner {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm");
+    // Queries allowed to be queued or running per worker thread before reading pauses.
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+
+    private final Dijkstra dijkstra;
+
+    public BatchRunner(Dijkstra dijkstra) {
+        this.dijkstra = dijkstra;
+    }
+
+    // One answered query line; error is set instead of the route when the line could not be answered.
+    static class Result {
+        final String id;
+        final String[] fields;
+        Trip trip;
+        String error;
+        long nanos;
+
+        Result(String id, String[] fields) {
+            this.id = id;
+            this.fields = fields;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: java BatchRunner queries.csv [results.csv|results.ndjson|-] [threads]");
+            return;
+        }
+        String output = args.length > 1 ? args[1] : "-";
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.readDataFromCSV("Final_Connection_V3.csv");
+        dijkstra.readWeatherData("collected Weather.csv");
+
+        boolean json = output.endsWith(".ndjson") || output.endsWith(".jsonl");
+        PrintStream report = output.equals("-") ? System.err : System.out;
+        try (BufferedReader in = new BufferedReader(new FileReader(args[0]));
+             Writer out = output.equals("-") ? new BufferedWriter(new OutputStreamWriter(System.out))
+                     : new BufferedWriter(new FileWriter(output))) {
+            new BatchRunner(dijkstra).run(in, out, json, threads, report);
+        }
+    }
+
+    public void run(BufferedReader in, Writer out, boolean json, int threads, PrintStream report)
+            throws IOException, InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        Semaphore inFlight = new Semaphore(threads * IN_FLIGHT_PER_THREAD);
+        // Futures in input order; the writer waits on each one in turn, so output order
+        // never depends on which worker finishes first.
+        BlockingQueue<Future<Result>> pending = new LinkedBlockingQueue<>();
+        Future<Result> endOfInput = CompletableFuture.completedFuture(null);
+        long[][] latencies = {new long[1024]};
+        int[] answered = {0};
+        int[] failed = {0};
+        // The first write or worker failure. Once it is set, nothing more is written and no more
+        // lines are read, but the writer keeps draining pending and handing permits back, so
+        // neither side can be left waiting on the other.
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        AtomicBoolean writerDone = new AtomicBoolean();
+
+        Thread writer = new Thread(() -> {
+            try {
+                write(out, json ? null : "id,origin,origin_state,destination,destination_state,departure,preference,found,distance,gallons,arrival,path,error", failure);
+                while (true) {
+                    Future<Result> next = pending.take();
+                    if (next == endOfInput) {
+                        break;
+                    }
+                    Result result;
+                    try {
+                        result = next.get();
+                    } catch (ExecutionException e) {
+                        failure.compareAndSet(null, e);
+                        continue;
+                    } finally {
+                        inFlight.release();
+                    }
+                    write(out, json ? toJson(result) : toCsv(result), failure);
+                    if (answered[0] == latencies[0].length) {
+                        latencies[0] = Arrays.copyOf(latencies[0], answered[0] * 2);
+                    }
+                    latencies[0][answered[0]++] = result.nanos;
+                    if (result.error != null) {
+                        failed[0]++;
+                    }
+                }
+                if (failure.get() == null) {
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                // Wakes the reader if it is waiting for a permit after the writer has stopped.
+                writerDone.set(true);
+                inFlight.release();
+            }
+        });
+        writer.start();
+
+        long start = System.nanoTime();
+        try {
+            String line;
+            int lineNumber = 0;
+            while (failure.get() == null && (line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && line.toLowerCase(Locale.ROOT).startsWith("origin"))) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                Result result = new Result(fields.length > 6 && !fields[6].isBlank() ? fields[6].trim() : String.valueOf(lineNumber), fields);
+                inFlight.acquire();
+                if (writerDone.get()) {
+                    break;
+                }
+                pending.add(workers.submit(() -> answer(result)));
+            }
+        } finally {
+            pending.add(endOfInput);
+            writer.join();
+            workers.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        Exception error = failure.get();
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        }
+        if (error != null) {
+            throw new IOException("Batch stopped after " + answered[0] + " queries", error);
+        }
+
+        long[] sorted = Arrays.copyOf(latencies[0], answered[0]);
+        Arrays.sort(sorted);
+        report.printf("%d queries (%d failed) in %d ms on %d threads: %.0f queries/s\n",
+                answered[0], failed[0], elapsed / 1_000_000, threads, answered[0] * 1e9 / Math.max(1, elapsed));
+        report.printf("Latency ms: p50 %.3f, p90 %.3f, p99 %.3f, max %.3f\n",
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), percentile(sorted, 100));
+    }
+
+    // Writes one line unless an earlier write failed; a failure is recorded instead of thrown.
+    private static void write(Writer out, String line, AtomicReference<Exception> failure) {
+        if (line == null || failure.get() != null) {
+            return;
+        }
+        try {
+            out.write(line);
+            out.write('\n');
+        } catch (IOException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private Result answer(Result result) {
+        long start = System.nanoTime();
+        try {
+            String[] fields = result.fields;
+            if (fields.length < 6) {
+                result.error = "expected originCity,originState,destinationCity,destinationState,departure,preference";
+                return result;
+            }
+            CityRegistry cities = dijkstra.cities();
+            int origin = cities.find(CityRegistry.normalize(fields[0]), CityRegistry.normalize(fields[1]));
+            int destination = cities.find(CityRegistry.normalize(fields[2]), CityRegistry.normalize(fields[3]));
+            if (origin < 0 || destination < 0) {
+                result.error = "unknown city " + (origin < 0 ? fields[0] + "," + fields[1] : fields[2] + "," + fields[3]).trim();
+                return result;
+            }
+            LocalDateTime departure = LocalDateTime.parse(fields[4].trim(), TIME_FORMAT);
+            int preference = Integer.parseInt(fields[5].trim());
+            result.trip = dijkstra.trip(origin, destination, departure, preference);
+        } catch (RuntimeException e) {
+            result.error = String.valueOf(e.getMessage());
+        } finally {
+            result.nanos = System.nanoTime() - start;
+        }
+        return result;
+    }
+
+    private static String toCsv(Result result) {
+        StringBuilder row = new StringBuilder(result.id);
+        for (int i = 0; i < 6; i++) {
+            row.append(',').append(i < result.fields.length ? result.fields[i].trim() : "");
+        }
+        Trip trip = result.trip;
+        if (trip == null || !trip.route.found()) {
+            row.append(",false,,,,,");
+        } else {
+            row.append(",true,").append(RouteServer.number(trip.route.distance));
+            row.append(',').append(RouteServer.number(trip.totalGallons()));
+            row.append(',').append(trip.endTime().format(TIME_FORMAT));
+            row.append(',');
+            List<City> path = trip.path();
+            for (int i = 0; i < path.size(); i++) {
+                row.append(i == 0 ? "" : ">").append(path.get(i).name);
+            }
+            row.append(',');
+        }
+        if (result.error != null) {
+            row.append('"').append(result.error.replace("\"", "\"\"")).append('"');
+        }
+        return row.toString();
+    }
+
+    private static String toJson(Result result) {
+        StringBuilder json = new StringBuilder("{\"id\":").append(RouteServer.quote(result.id));
+        Trip trip = result.trip;
+        boolean found = trip != null && trip.route.found();
+        json.append(",\"found\":").append(found);
+        if (found) {
+            json.append(",\"distance\":").append(RouteServer.number(trip.route.distance));
+            json.append(",\"gallons\":").append(RouteServer.number(trip.totalGallons()));
+            json.append(",\"arrival\":").append(RouteServer.quote(trip.endTime().format(TIME_FORMAT)));
+            json.append(",\"path\":[");
+            List<City> path = trip.path();
+            for (int i = 0; i < path.size(); i++) {
+                City city = path.get(i);
+                json.append(i == 0 ? "" : ",").append(RouteServer.quote(city.name + "," + city.state));
+            }
+            json.append(']');
+        }
+        if (result.error != null) {
+            json.append(",\"error\":").append(RouteServer.quote(result.error));
+        }
+        return json.append('}').toString();
+    }
+
+    // Nearest-rank percentile of sorted nanosecond latencies, in milliseconds.
+    private static double percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+}
@@ -3,66 +3,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
-class City {
-    String name;
-    String state;
-    double latitude;
-    double longitude;
-
-    public City(String name, String state) {
-        this.name = name;
-        this.state = state;
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-        City city = (City) obj;
-        return name.equals(city.name) && state.equals(city.state);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(name, state);
-    }
-
-    @Override
-    public String toString() {
-        return name;
-    }
-}
-
-class Edge {
-    City source;
-    City destination;
-    double distance;
-    double speed;
-    double gradient;
-
-    public Edge(City source, City destination, double distance, double speed, double gradient) {
-        this.source = source;
-        this.destination = destination;
-        this.distance = distance;
-        this.speed = speed;
-        this.gradient = gradient;
-    }
-}
-
-class WeatherData {
-    Map<LocalDateTime, String> hourlyConditions;
-    double latitude;
-    double longitude;
-
-    public WeatherData(double latitude, double longitude) {
-        this.hourlyConditions = new HashMap<>();
-        this.latitude = latitude;
-        this.longitude = longitude;
-    }
-
-}
-
-public class BellmanFord {
+public class BellmanFord implements RouteEngine {
     public static void main(String[] args) {
         BellmanFord bellmanFord = new BellmanFord();
         bellmanFord.readDataFromCSV("Final_Connection_V3.csv");
@@ -70,302 +11,161 @@ public class BellmanFord {
 
         Scanner scanner = new Scanner(System.in);
         System.out.print("Enter source city: ");
-        String startCity = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String startCity = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter source State: ");
-        String startState = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String startState = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter destination city: ");
-        String endCity = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String endCity = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter destination State: ");
-        String endState = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String endState = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter Start Time (format: MM/DD/YYYY hh:mm):");
         String startTime = scanner.nextLine();
         scanner.close();
 
-        City origin = new City(startCity, startState);
-        System.out.println("Origin: " + origin);
-        City destination = new City(endCity, endState);
-
-        Map<City, City> previousNodes = bellmanFord.findShortestPaths(origin, startTime);
+        RoadNetwork data = bellmanFord.network;
+        int originId = data.cities.find(startCity, startState);
+        int destinationId = data.cities.find(endCity, endState);
+        System.out.println("Origin: " + startCity);
 
-        if (previousNodes.containsKey(destination)) {
-            List<City> shortestPath = bellmanFord.getShortestPath(origin, destination, previousNodes);
-            double totalGallons = 0.0;
+        int[] previousEdges = bellmanFord.findShortestPaths(originId, startTime);
+        List<List<String>> cityAttributes = new ArrayList<>();
+        Set<City> visitedCities = new HashSet<>();
 
-            double shortestDistance = bellmanFord.calculatePathDistance(shortestPath);
-            City previousCity = new City("", "");
+        if (bellmanFord.hasPath(destinationId, previousEdges)) {
+            City origin = data.cities.city(originId);
+            City destination = data.cities.city(destinationId);
+            RoutePath route = bellmanFord.getShortestPath(originId, destinationId, previousEdges);
+            double shortestDistance = bellmanFord.calculatePathDistance(route);
 
-            LocalDateTime currentDateTime = LocalDateTime.parse(startTime, DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm"));
+            LocalDateTime departure = LocalDateTime.parse(startTime, DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm"));
+            Trip trip = new TripSimulator(data).simulate(route, departure);
 
-            
-            WeatherData startWeather = bellmanFord.weatherDataMap.get(origin);
+            WeatherData startWeather = data.weatherFor(originId);
             if (startWeather != null) {
                 System.out.printf("Starting Latitude: %.2f, Longitude: %.2f\n", startWeather.latitude, startWeather.longitude);
             }
 
-            
             System.out.print(startCity);
-            if (!bellmanFord.visitedCities.contains(origin)) {
-                double distance = 0.0;
-                double gallons = 0.0;
-                String weatherCondition = bellmanFord.getWeatherCondition(origin, currentDateTime);
-
-            
-                List<String> attributes = new ArrayList<>();
-                attributes.add(origin.name);
-                attributes.add(origin.state);
-                attributes.add(String.valueOf(distance));
-                attributes.add(String.valueOf(gallons));
-                attributes.add(weatherCondition);
-                attributes.add(String.valueOf(startWeather.latitude));  
-                attributes.add(String.valueOf(startWeather.longitude));
-                BellmanFord.cityAttributes.add(attributes);
-
-                
-                currentDateTime = currentDateTime.plusMinutes(0); 
-
-                System.out.printf("--distance %.2f miles", distance);
-                System.out.printf("--ETA: %s ", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
-                System.out.printf("--Gallons required: %.2f -- Weather: %s", gallons, weatherCondition);
-
-                bellmanFord.visitedCities.add(origin);
-            }
-
-            
-            for (int i = 0; i < shortestPath.size(); i++) {
-                City city = shortestPath.get(i);
-
+            for (int i = 0; i < trip.legCount(); i++) {
+                City city = trip.city(i);
+                if (visitedCities.contains(city)) {
+                    continue;
+                }
                 if (i > 0) {
-                    double distance = 0.0;
-                    double speed = 0.0;
-                    double duration = 0.0;
-                    double gallons = 0.0;
-                    double gradient = 0.0;
-                    double distanceWeather = 0.0;
-                    double distanceGradient = 0.0;
-
-                    for (Edge edge : bellmanFord.graph.get(shortestPath.get(i - 1))) {
-                        if (edge.destination.equals(city)) {
-                            distance = edge.distance;
-                            gradient = edge.gradient;
-                            WeatherData cityWeather = bellmanFord.weatherDataMap.get(city);
-                            if (cityWeather != null) {
-                                distanceWeather = bellmanFord.checkWeatherCondition(distance, bellmanFord.getWeatherCondition(city, currentDateTime));
-                                distanceGradient = distanceWeather * (1 + gradient);
-                                speed = edge.speed;
-                                duration = distanceGradient / speed;
-                                gallons = distanceGradient / 38;
-                                String formattedGallons = String.format("%.2f", gallons);
-                                List<String> attributes = new ArrayList<>();
-                                attributes.add(city.name);
-                                attributes.add(city.state);
-                                attributes.add(String.valueOf(distance));
-                                attributes.add(String.valueOf(formattedGallons));
-                                attributes.add(bellmanFord.getWeatherCondition(city, currentDateTime));
-                                attributes.add(String.valueOf(cityWeather.latitude));  
-                                attributes.add(String.valueOf(cityWeather.longitude));
-                                BellmanFord.cityAttributes.add(attributes);
-                                currentDateTime = currentDateTime.plusMinutes((long) (duration * 60));
-                                totalGallons += gallons;
-                                if (!bellmanFord.visitedCities.contains(city)) {
-                                    System.out.print("---->");
-                                    System.out.print(city);
-                                    System.out.printf("--distance %.2f miles", distance);
-                                    System.out.printf("--ETA: %s ", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
-                                    System.out.printf("--Gallons required: %s -- Weather: %s", formattedGallons, bellmanFord.getWeatherCondition(city, currentDateTime));
-                                    bellmanFord.visitedCities.add(city);
-                                }
-
-                                if (city.equals(destination)) {
-                                    break;  
-                                }
-                            }
-                        }
-                    }
+                    System.out.print("---->");
+                    System.out.print(city);
                 }
-                previousCity = city;
+                System.out.printf("--distance %.2f miles", trip.legs.distance[i]);
+                System.out.printf("--ETA: %s ", trip.arrival(i).format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
+                System.out.printf("--Gallons required: %.2f -- Weather: %s", trip.legs.gallons[i], trip.arrivalWeather(i));
+                visitedCities.add(city);
             }
+            cityAttributes = trip.cityAttributes();
 
             System.out.println();
             System.out.println("\nCity Attributes for the Shortest Path:");
             System.out.printf("%-20s%-20s%-20s%-20s%-20s%-20s%-20s\n", "City", "State", "Distance", "Gallons", "Weather", "Latitude", "Longitude");
-            for (List<String> attributes : BellmanFord.cityAttributes) {
+            for (List<String> attributes : cityAttributes) {
                 System.out.printf("%-20s%-20s%-20s%-20s%-20s%-20s%-20s\n", attributes.get(0), attributes.get(1), attributes.get(2), attributes.get(3), attributes.get(4), attributes.get(5), attributes.get(6));
             }
-            BellmanFord.writeCityAttributesToCSV(BellmanFord.cityAttributes, "city_attributes.csv");
+            BellmanFord.writeCityAttributesToCSV(cityAttributes, "city_attributes.csv");
 
-            System.out.printf("\nShortest distance from %s to %s: %.2f, total gallons: %.2f\n", origin, destination, shortestDistance, totalGallons);
-            System.out.printf("End Time: %s\n", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
+            System.out.printf("\nShortest distance from %s to %s: %.2f, total gallons: %.2f\n", origin, destination, shortestDistance, trip.totalGallons());
+            System.out.printf("End Time: %s\n", trip.endTime().format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
         } else {
-            System.out.println("No path found from " + origin + " to " + destination);
+            System.out.println("No path found from " + startCity + " to " + endCity);
         }
     }
     
-    private Map<City, List<Edge>> graph;
-    private static Map<City, WeatherData> weatherDataMap;
-    public static List<List<String>> cityAttributes;
-    private Map<City, Double> distances;
-    private Map<City, City> previousNodes;
-    private Set<City> visitedCities;  
+    // Replaced as a whole on reload, so a query always reads one consistent dataset.
+    private volatile RoadNetwork network = RoadNetwork.EMPTY;
 
-    public BellmanFord() {
-        this.graph = new LinkedHashMap<>();
-        this.weatherDataMap = new HashMap<>();
-        this.distances = new HashMap<>();
-        this.previousNodes = new HashMap<>();
-        this.cityAttributes = new ArrayList<>();
-        this.visitedCities = new HashSet<>();  
+    public synchronized void readDataFromCSV(String csvFilePath) {
+        network = network.withRoads(csvFilePath);
     }
 
-    public void addEdge(City source, City destination, double distance, double speed, double gradient) {
-        if (!source.state.equals(destination.state)) {
-            source.state = source.state.isEmpty() ? destination.state : source.state;
-            destination.state = destination.state.isEmpty() ? source.state : destination.state;
-        }
-
-        List<Edge> sourceEdges = graph.computeIfAbsent(source, k -> new ArrayList<>());
-        List<Edge> destinationEdges = graph.computeIfAbsent(destination, k -> new ArrayList<>());
-        if (sourceEdges.stream().noneMatch(edge -> edge.destination.equals(destination))
-                && destinationEdges.stream().noneMatch(edge -> edge.destination.equals(source))) {
-            sourceEdges.add(new Edge(source, destination, distance, speed, gradient));
-            destinationEdges.add(new Edge(destination, source, distance, speed, gradient));
-        }
+    public synchronized void readWeatherData(String weatherFilePath) {
+        network = network.withWeather(weatherFilePath);
     }
 
-    public void readDataFromCSV(String csvFilePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(csvFilePath))) {
-            String line;
-            boolean firstLine = true;
-            while ((line = br.readLine()) != null) {
-                if (firstLine) {
-                    firstLine = false;
-                    continue;
-                }
-                String[] parts = line.split(",");
-                String stateOrigin = parts[0].trim().toLowerCase().replaceAll("\\s", "");
-                String stateDestination = parts[1].trim().toLowerCase().replaceAll("\\s", "");
-                String cityOrigin = parts[2].trim().toLowerCase().replaceAll("\\s", "");
-                String cityDestination = parts[3].trim().toLowerCase().replaceAll("\\s", "");
-                double distance = Double.parseDouble(parts[4].trim());
-                double speed = Double.parseDouble(parts[5].trim());
-                double gradient = Double.parseDouble(parts[8].trim());
+    // For every city, the edge its shortest route from start arrives through, or -1 for start itself
+    // and for cities that cannot be reached. Distances and predecessors are local to each call,
+    // so queries can run concurrently.
+    public int[] findShortestPaths(int start, String startTime) {
+        RoadGraph graph = network.graph;
+        int n = graph.nodeCount();
+        double[] distances = new double[n];
+        int[] previousEdges = new int[n];
 
-                addEdge(new City(cityOrigin, stateOrigin), new City(cityDestination, stateDestination), distance, speed, gradient);
-            }
-        } catch (IOException | NumberFormatException e) {
-            e.printStackTrace(); 
-        }
-    }
-
-    public void readWeatherData(String weatherFilePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(weatherFilePath))) {
-            String line;
-            boolean firstLine = true;
-            String[] firstLineData = null;
-            while ((line = br.readLine()) != null) {
-                if (firstLine) {
-                    firstLineData = line.split(",");
-                    firstLine = false;
-                    continue;
-                }
-                String[] parts = line.split(",");
-                String cityName = parts[1].trim().toLowerCase().replaceAll("\\s", "");
-                String stateName = parts[0].trim().toLowerCase().replaceAll("\\s", "");
-
-                double latitude = Double.parseDouble(parts[parts.length - 2].trim());
-                double longitude = Double.parseDouble(parts[parts.length - 1].trim());
-
-                WeatherData weatherData = new WeatherData(latitude, longitude);
-                for (int i = 2; i < parts.length - 2; i++) {
-                    String dateTimeString = (firstLineData[i]).trim();
-
-                    if (!dateTimeString.equalsIgnoreCase("Latitude")) {  
-                        String conditions = parts[i].trim().toLowerCase().replaceAll("\\s", "");
-                        LocalDateTime dateTime = LocalDateTime.parse(dateTimeString, DateTimeFormatter.ofPattern("MM/dd/yyyy H:mm", Locale.ENGLISH));
-
-                        weatherData.hourlyConditions.put(dateTime, conditions);
-                    }
-                }
-                weatherDataMap.put(new City(cityName, stateName), weatherData);
-            }
-        } catch (IOException | NumberFormatException e) {
-            e.printStackTrace(); 
-        }
-    }
-
-    public Map<City, City> findShortestPaths(City start, String startTime) {
         // Initialize distances
-        for (City city : graph.keySet()) {
-            distances.put(city, Double.MAX_VALUE);
+        Arrays.fill(distances, Double.MAX_VALUE);
+        Arrays.fill(previousEdges, -1);
+        if (start < 0 || start >= n) {
+            return previousEdges;
         }
-        distances.put(start, 0.0);
-
-        // Relax edges repeatedly
-        for (int i = 0; i < graph.size() - 1; i++) {
-            for (City current : graph.keySet()) {
-                for (Edge edge : graph.getOrDefault(current, Collections.emptyList())) {
-                    City neighbor = edge.destination;
-                    double newDistance = distances.get(current) + edge.distance;
-
-                    if (newDistance < distances.get(neighbor)) {
-                        distances.put(neighbor, newDistance);
-                        previousNodes.put(neighbor, current);
+        distances[start] = 0.0;
+
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        double[] edgeDistance = graph.distance;
+
+        // Relax edges repeatedly, until a full pass changes nothing
+        for (int i = 0; i < n - 1; i++) {
+            boolean changed = false;
+            for (int current = 0; current < n; current++) {
+                for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                    int neighbor = targets[e];
+                    double newDistance = distances[current] + edgeDistance[e];
+
+                    if (newDistance < distances[neighbor]) {
+                        distances[neighbor] = newDistance;
+                        previousEdges[neighbor] = e;
+                        changed = true;
                     }
                 }
             }
+            if (!changed) {
+                break;
+            }
         }
-        for (City current : graph.keySet()) {
-            for (Edge edge : graph.getOrDefault(current, Collections.emptyList())) {
-                City neighbor = edge.destination;
-                double newDistance = distances.get(current) + edge.distance;
+        for (int current = 0; current < n; current++) {
+            for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                int neighbor = targets[e];
+                double newDistance = distances[current] + edgeDistance[e];
 
-                if (newDistance < distances.get(neighbor)) {
+                if (newDistance < distances[neighbor]) {
                     throw new RuntimeException("Graph contains a negative-weight cycle");
                 }
             }
         }
 
-        return previousNodes;
+        return previousEdges;
     }
 
-        
+    // Runs the queue-based variant, which stops relaxing as soon as nothing changes.
+    @Override
+    public RoutePath route(int origin, int destination, LocalDateTime departure) {
+        return new SPFA(network.graph).route(origin, destination, departure);
+    }
 
-    public List<City> getShortestPath(City start, City destination, Map<City, City> previousNodes) {
-        List<City> path = new ArrayList<>();
-        City current = destination;
+    public boolean hasPath(int destination, int[] previousEdges) {
+        return destination >= 0 && destination < previousEdges.length && previousEdges[destination] != -1;
+    }
 
-        while (current != null && !current.equals(start)) {
-            path.add(current);
-            current = previousNodes.get(current);
+    // Route from start to destination out of the array findShortestPaths returned, with the
+    // edge of every leg, so nothing has to be looked up in the neighbour lists afterwards.
+    public RoutePath getShortestPath(int start, int destination, int[] previousEdges) {
+        if (destination == start) {
+            return RoutePath.single(start, 0);
         }
-
-        if (current != null && current.equals(start)) {
-            path.add(start);
-            Collections.reverse(path);
+        if (!hasPath(destination, previousEdges)) {
+            return RoutePath.notFound(0);
         }
-
-        return path;
+        return RoutePath.fromEdges(network.graph, start, destination, previousEdges, 0);
     }
 
-    public double calculatePathDistance(List<City> path) {
-        double distance = 0.0;
-
-        for (int i = 0; i < path.size() - 1; i++) {
-            City current = path.get(i);
-            City next = path.get(i + 1);
-
-            if (graph.containsKey(current)) {
-                for (Edge edge : graph.get(current)) {
-                    if (edge.destination.equals(next)) {
-                        distance += edge.distance;
-                        break;
-                    }
-                }
-            } else {
-                System.out.println("The City name is not present in Data");
-            }
-        }
-
-        return distance;
+    public double calculatePathDistance(RoutePath path) {
+        return path.roadDistance(network.graph);
     }
 
     public static void writeCityAttributesToCSV(List<List<String>> cityAttributes, String csvFilePath) {
@@ -379,49 +179,4 @@ public class BellmanFord {
             e.printStackTrace(); 
         }
     }
-
-   
-
-    private String getWeatherCondition(City city, LocalDateTime dateTime) {
-        WeatherData weatherData = weatherDataMap.get(city);
-
-        if (weatherData != null) {
-            LocalDateTime roundedDateTime = roundDownToNearestHour(dateTime);
-            if (weatherData.hourlyConditions.containsKey(roundedDateTime)) {
-                return weatherData.hourlyConditions.get(roundedDateTime);
-            } else {
-                return "Unknown";
-            }
-        }
-
-        return "Unknown";
-    }
-
-    private LocalDateTime roundDownToNearestHour(LocalDateTime dateTime) {
-        return dateTime.withMinute(0).withSecond(0).withNano(0);
-    }
-
-    private double checkWeatherCondition(double distance, String condition) {
-        switch (condition) {
-            case "fair":
-                distance = distance + 0;
-                break;
-            case "partlycloudy":
-                distance = distance + 1;
-                break;
-            case "mostlycloudy":
-                distance = distance + 2;
-                break;
-            case "cloudy":
-                distance = distance + 3;
-                break;
-            case "lightrain":
-                distance = distance + 4;
-                break;
-            case "heavyrain":
-                distance = distance + 5;
-                break;
-        }
-        return distance;
-    }
 }
@@ -0,0 +1,106 @@
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Runs Dijkstra from the origin and from the destination at the same time.
+// RoadGraph stores every road in both directions with the same attributes,
+// so the backward search can walk the same adjacency arrays as the forward one.
+public class BidirectionalDijkstra implements RouteEngine {
+    private final RoadGraph graph;
+
+    public BidirectionalDijkstra(RoadGraph graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public RoutePath route(int origin, int destination, LocalDateTime departure) {
+        int n = graph.nodeCount();
+        if (origin < 0 || origin >= n || destination < 0 || destination >= n) {
+            return RoutePath.notFound(0);
+        }
+        if (origin == destination) {
+            return RoutePath.single(origin, 1);
+        }
+
+        double[] forwardDistances = new double[n];
+        double[] backwardDistances = new double[n];
+        // forwardEdges[v] is the edge the forward search reached v through; backwardEdges[v] is
+        // the edge leaving v towards the destination, so both halves unpack without lookups.
+        int[] forwardEdges = new int[n];
+        int[] backwardEdges = new int[n];
+        Arrays.fill(forwardDistances, Double.POSITIVE_INFINITY);
+        Arrays.fill(backwardDistances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap forwardQueue = new IndexedMinHeap(n);
+        IndexedMinHeap backwardQueue = new IndexedMinHeap(n);
+
+        forwardDistances[origin] = 0.0;
+        backwardDistances[destination] = 0.0;
+        forwardQueue.insert(origin, 0.0);
+        backwardQueue.insert(destination, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        int settled = 0;
+
+        // Once the two frontiers together cannot beat the best meeting point, it is optimal.
+        while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()
+                && forwardQueue.minKey() + backwardQueue.minKey() < best) {
+            boolean forward = forwardQueue.size() <= backwardQueue.size();
+            IndexedMinHeap queue = forward ? forwardQueue : backwardQueue;
+            double[] distances = forward ? forwardDistances : backwardDistances;
+            double[] otherDistances = forward ? backwardDistances : forwardDistances;
+            int[] edges = forward ? forwardEdges : backwardEdges;
+
+            int current = queue.poll();
+            settled++;
+            for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                int neighbor = graph.targets[e];
+                double newDistance = distances[current] + graph.distance[e];
+
+                if (newDistance < distances[neighbor]) {
+                    distances[neighbor] = newDistance;
+                    edges[neighbor] = forward ? e : graph.reverse[e];
+                    queue.push(neighbor, newDistance);
+                }
+                double through = newDistance + otherDistances[neighbor];
+                if (through < best) {
+                    best = through;
+                    meeting = neighbor;
+                }
+            }
+        }
+
+        if (meeting == -1) {
+            return RoutePath.notFound(settled);
+        }
+        return joinAt(graph, origin, destination, meeting, forwardEdges, backwardEdges, best, settled);
+    }
+
+    private static RoutePath joinAt(RoadGraph graph, int origin, int destination, int meeting, int[] forwardEdges,
+                                    int[] backwardEdges, double distance, int settled) {
+        int forwardLength = 1;
+        for (int node = meeting; node != origin; node = graph.targets[graph.reverse[forwardEdges[node]]]) {
+            forwardLength++;
+        }
+        int backwardLength = 0;
+        for (int node = meeting; node != destination; node = graph.targets[backwardEdges[node]]) {
+            backwardLength++;
+        }
+
+        int[] nodes = new int[forwardLength + backwardLength];
+        int[] edges = new int[nodes.length - 1];
+        int node = meeting;
+        for (int i = forwardLength - 1; i > 0; i--) {
+            nodes[i] = node;
+            edges[i - 1] = forwardEdges[node];
+            node = graph.targets[graph.reverse[forwardEdges[node]]];
+        }
+        nodes[0] = origin;
+        node = meeting;
+        for (int i = forwardLength; i < nodes.length; i++) {
+            edges[i - 1] = backwardEdges[node];
+            node = graph.targets[backwardEdges[node]];
+            nodes[i] = node;
+        }
+        return new RoutePath(nodes, edges, distance, settled);
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.*;
+
+// Interns every (city, state) pair once and hands out dense int ids in the order
+// the pairs are first seen. Ids index straight into RoadGraph and the weather table.
+public class CityRegistry {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final Map<String, String> names = new HashMap<>();
+    private final List<City> cities = new ArrayList<>();
+
+    // Same result as value.trim().toLowerCase().replaceAll("\\s", "") without the regex.
+    public static String normalize(String value) {
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    // Expects names that were already passed through normalize().
+    public int intern(String name, String state) {
+        String key = key(name, state);
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = cities.size();
+            cities.add(new City(id, pooled(name), pooled(state)));
+            ids.put(key, id);
+        }
+        return id;
+    }
+
+    // Returns the id of an already interned city, or -1.
+    public int find(String name, String state) {
+        Integer id = ids.get(key(name, state));
+        return id == null ? -1 : id;
+    }
+
+    // Independent registry with the same ids, names and coordinates, for building the next
+    // snapshot while this one stays in use.
+    public CityRegistry copy() {
+        CityRegistry copy = new CityRegistry();
+        copy.ids.putAll(ids);
+        copy.names.putAll(names);
+        for (City city : cities) {
+            City copied = new City(city.id, city.name, city.state);
+            copied.latitude = city.latitude;
+            copied.longitude = city.longitude;
+            copy.cities.add(copied);
+        }
+        return copy;
+    }
+
+    public City city(int id) {
+        return cities.get(id);
+    }
+
+    public int size() {
+        return cities.size();
+    }
+
+    private String pooled(String value) {
+        String existing = names.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    private static String key(String name, String state) {
+        return name + ',' + state;
+    }
+}
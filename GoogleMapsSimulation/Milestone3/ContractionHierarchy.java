@@ -0,0 +1,360 @@
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Contraction Hierarchies over the two-way road graph.
+// Nodes are contracted one at a time in order of edge difference; whenever removing a node
+// would break a shortest path between two of its neighbours, a shortcut through it is added.
+// A query is then a bidirectional Dijkstra that only climbs to higher-ranked nodes.
+public class ContractionHierarchy implements RouteEngine {
+    // Witness searches give up after this many nodes and simply keep the shortcut.
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    final int[] rank;
+    // Upward arcs in CSR form; middle is the contracted node a shortcut skips, or -1 for a road.
+    // For a road, edge is its RoadGraph edge id driven from the lower-ranked end; -1 for shortcuts.
+    final int[] upOffsets;
+    final int[] upTargets;
+    final double[] upWeight;
+    final int[] upMiddle;
+    final int[] upEdge;
+    private final RoadGraph graph;
+
+    private ContractionHierarchy(RoadGraph graph, int[] rank, int[] upOffsets, int[] upTargets, double[] upWeight,
+                                 int[] upMiddle, int[] upEdge) {
+        this.graph = graph;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeight = upWeight;
+        this.upMiddle = upMiddle;
+        this.upEdge = upEdge;
+    }
+
+    public int nodeCount() {
+        return rank.length;
+    }
+
+    public int shortcutCount() {
+        int shortcuts = 0;
+        for (int middle : upMiddle) {
+            if (middle != -1) {
+                shortcuts++;
+            }
+        }
+        return shortcuts;
+    }
+
+    private static class Arc {
+        double weight;
+        int middle;
+        int edge;
+
+        Arc(double weight, int middle, int edge) {
+            this.weight = weight;
+            this.middle = middle;
+            this.edge = edge;
+        }
+    }
+
+    public static ContractionHierarchy build(RoadGraph graph) {
+        return new Contractor(graph).contractAll();
+    }
+
+    // Mutable state that only lives while the hierarchy is being built.
+    private static class Contractor {
+        private final RoadGraph graph;
+        private final int n;
+        private final List<Map<Integer, Arc>> adjacency = new ArrayList<>();
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        private final double[] witnessDistances;
+        private final IndexedMinHeap witnessQueue;
+        private final List<Integer> touched = new ArrayList<>();
+
+        Contractor(RoadGraph graph) {
+            this.graph = graph;
+            n = graph.nodeCount();
+            for (int u = 0; u < n; u++) {
+                Map<Integer, Arc> arcs = new LinkedHashMap<>();
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    Arc arc = arcs.get(v);
+                    if (v != u && (arc == null || graph.distance[e] < arc.weight)) {
+                        arcs.put(v, new Arc(graph.distance[e], -1, e));
+                    }
+                }
+                adjacency.add(arcs);
+            }
+            contracted = new boolean[n];
+            contractedNeighbors = new int[n];
+            witnessDistances = new double[n];
+            Arrays.fill(witnessDistances, Double.POSITIVE_INFINITY);
+            witnessQueue = new IndexedMinHeap(n);
+        }
+
+        ContractionHierarchy contractAll() {
+            IndexedMinHeap order = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                order.insert(v, priority(v));
+            }
+
+            int[] rank = new int[n];
+            List<List<int[]>> upwardNodes = new ArrayList<>();
+            List<List<Arc>> upwardArcs = new ArrayList<>();
+            for (int v = 0; v < n; v++) {
+                upwardNodes.add(new ArrayList<>());
+                upwardArcs.add(new ArrayList<>());
+            }
+
+            int nextRank = 0;
+            while (!order.isEmpty()) {
+                int v = order.poll();
+                // Lazy update: priorities go stale as neighbours are contracted.
+                double current = priority(v);
+                if (!order.isEmpty() && current > order.minKey()) {
+                    order.insert(v, current);
+                    continue;
+                }
+
+                rank[v] = nextRank++;
+                for (Map.Entry<Integer, Arc> entry : adjacency.get(v).entrySet()) {
+                    upwardNodes.get(v).add(new int[]{entry.getKey()});
+                    upwardArcs.get(v).add(entry.getValue());
+                }
+                contract(v, false);
+            }
+
+            int arcCount = 0;
+            for (List<int[]> targets : upwardNodes) {
+                arcCount += targets.size();
+            }
+            int[] upOffsets = new int[n + 1];
+            int[] upTargets = new int[arcCount];
+            double[] upWeight = new double[arcCount];
+            int[] upMiddle = new int[arcCount];
+            int[] upEdge = new int[arcCount];
+            int slot = 0;
+            for (int v = 0; v < n; v++) {
+                upOffsets[v] = slot;
+                for (int i = 0; i < upwardNodes.get(v).size(); i++) {
+                    Arc arc = upwardArcs.get(v).get(i);
+                    upTargets[slot] = upwardNodes.get(v).get(i)[0];
+                    upWeight[slot] = arc.weight;
+                    upMiddle[slot] = arc.middle;
+                    upEdge[slot] = arc.edge;
+                    slot++;
+                }
+            }
+            upOffsets[n] = slot;
+            return new ContractionHierarchy(graph, rank, upOffsets, upTargets, upWeight, upMiddle, upEdge);
+        }
+
+        // Edge difference plus the number of already contracted neighbours, which spreads
+        // contraction evenly over the map instead of eating into one region first.
+        private double priority(int v) {
+            int shortcuts = contract(v, true);
+            return shortcuts - adjacency.get(v).size() + contractedNeighbors[v];
+        }
+
+        // Counts (simulate) or inserts the shortcuts needed to remove v, and returns how many there are.
+        private int contract(int v, boolean simulate) {
+            Map<Integer, Arc> arcs = adjacency.get(v);
+            Integer[] neighbors = arcs.keySet().toArray(new Integer[0]);
+            int shortcuts = 0;
+
+            for (int i = 0; i < neighbors.length - 1; i++) {
+                int u = neighbors[i];
+                double toU = arcs.get(u).weight;
+                double limit = 0.0;
+                for (int j = i + 1; j < neighbors.length; j++) {
+                    limit = Math.max(limit, toU + arcs.get(neighbors[j]).weight);
+                }
+                witnessSearch(u, v, limit);
+
+                for (int j = i + 1; j < neighbors.length; j++) {
+                    int w = neighbors[j];
+                    double through = toU + arcs.get(w).weight;
+                    if (witnessDistances[w] <= through) {
+                        continue;
+                    }
+                    shortcuts++;
+                    if (!simulate) {
+                        addShortcut(u, w, through, v);
+                    }
+                }
+                resetWitness();
+            }
+
+            if (!simulate) {
+                contracted[v] = true;
+                for (int u : neighbors) {
+                    adjacency.get(u).remove(v);
+                    contractedNeighbors[u]++;
+                }
+            }
+            return shortcuts;
+        }
+
+        private void addShortcut(int u, int w, double weight, int middle) {
+            Arc existing = adjacency.get(u).get(w);
+            if (existing != null && existing.weight <= weight) {
+                return;
+            }
+            adjacency.get(u).put(w, new Arc(weight, middle, -1));
+            adjacency.get(w).put(u, new Arc(weight, middle, -1));
+        }
+
+        // Dijkstra from source among uncontracted nodes, skipping the node being contracted.
+        private void witnessSearch(int source, int skipped, double limit) {
+            witnessDistances[source] = 0.0;
+            touched.add(source);
+            witnessQueue.insert(source, 0.0);
+            int settled = 0;
+            while (!witnessQueue.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                if (witnessQueue.minKey() > limit) {
+                    break;
+                }
+                int current = witnessQueue.poll();
+                settled++;
+                for (Map.Entry<Integer, Arc> entry : adjacency.get(current).entrySet()) {
+                    int neighbor = entry.getKey();
+                    if (neighbor == skipped || contracted[neighbor]) {
+                        continue;
+                    }
+                    double newDistance = witnessDistances[current] + entry.getValue().weight;
+                    if (newDistance < witnessDistances[neighbor]) {
+                        if (witnessDistances[neighbor] == Double.POSITIVE_INFINITY) {
+                            touched.add(neighbor);
+                        }
+                        witnessDistances[neighbor] = newDistance;
+                        witnessQueue.push(neighbor, newDistance);
+                    }
+                }
+            }
+        }
+
+        private void resetWitness() {
+            for (int node : touched) {
+                witnessDistances[node] = Double.POSITIVE_INFINITY;
+            }
+            touched.clear();
+            witnessQueue.clear();
+        }
+    }
+
+    @Override
+    public RoutePath route(int origin, int destination, LocalDateTime departure) {
+        int n = nodeCount();
+        if (origin < 0 || origin >= n || destination < 0 || destination >= n) {
+            return RoutePath.notFound(0);
+        }
+        if (origin == destination) {
+            return RoutePath.single(origin, 1);
+        }
+
+        double[] forwardDistances = new double[n];
+        double[] backwardDistances = new double[n];
+        int[] forwardPrevious = new int[n];
+        int[] backwardPrevious = new int[n];
+        int[] forwardArc = new int[n];
+        int[] backwardArc = new int[n];
+        Arrays.fill(forwardDistances, Double.POSITIVE_INFINITY);
+        Arrays.fill(backwardDistances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap forwardQueue = new IndexedMinHeap(n);
+        IndexedMinHeap backwardQueue = new IndexedMinHeap(n);
+        forwardDistances[origin] = 0.0;
+        backwardDistances[destination] = 0.0;
+        forwardQueue.insert(origin, 0.0);
+        backwardQueue.insert(destination, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        int settled = 0;
+        // Each side may stop on its own once its frontier cannot improve the best meeting point.
+        while (true) {
+            boolean forwardOpen = !forwardQueue.isEmpty() && forwardQueue.minKey() < best;
+            boolean backwardOpen = !backwardQueue.isEmpty() && backwardQueue.minKey() < best;
+            if (!forwardOpen && !backwardOpen) {
+                break;
+            }
+            boolean forward = forwardOpen && (!backwardOpen || forwardQueue.size() <= backwardQueue.size());
+            IndexedMinHeap queue = forward ? forwardQueue : backwardQueue;
+            double[] distances = forward ? forwardDistances : backwardDistances;
+            double[] otherDistances = forward ? backwardDistances : forwardDistances;
+            int[] previous = forward ? forwardPrevious : backwardPrevious;
+            int[] arcs = forward ? forwardArc : backwardArc;
+
+            int current = queue.poll();
+            settled++;
+            if (distances[current] + otherDistances[current] < best) {
+                best = distances[current] + otherDistances[current];
+                meeting = current;
+            }
+            for (int a = upOffsets[current]; a < upOffsets[current + 1]; a++) {
+                int neighbor = upTargets[a];
+                double newDistance = distances[current] + upWeight[a];
+                if (newDistance < distances[neighbor]) {
+                    distances[neighbor] = newDistance;
+                    previous[neighbor] = current;
+                    arcs[neighbor] = a;
+                    queue.push(neighbor, newDistance);
+                }
+            }
+        }
+
+        if (meeting == -1) {
+            return RoutePath.notFound(settled);
+        }
+
+        // Climb from the meeting point back to the origin, then unpack those arcs in travel order.
+        List<Integer> climb = new ArrayList<>();
+        for (int node = meeting; node != origin; node = forwardPrevious[node]) {
+            climb.add(node);
+        }
+        List<Integer> nodes = new ArrayList<>();
+        List<Integer> edges = new ArrayList<>();
+        nodes.add(origin);
+        for (int i = climb.size() - 1; i >= 0; i--) {
+            int node = climb.get(i);
+            unpack(forwardPrevious[node], node, forwardArc[node], nodes, edges);
+        }
+        for (int node = meeting; node != destination; node = backwardPrevious[node]) {
+            unpack(node, backwardPrevious[node], backwardArc[node], nodes, edges);
+        }
+
+        int[] path = new int[nodes.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = nodes.get(i);
+        }
+        int[] pathEdges = new int[edges.size()];
+        for (int i = 0; i < pathEdges.length; i++) {
+            pathEdges[i] = edges.get(i);
+        }
+        return new RoutePath(path, pathEdges, best, settled);
+    }
+
+    // Appends the road-level nodes after from, up to and including to, and the edges between them.
+    private void unpack(int from, int to, int arc, List<Integer> nodes, List<Integer> edges) {
+        int middle = upMiddle[arc];
+        if (middle == -1) {
+            // Road arcs are stored in the upward direction; driving one downward takes its twin.
+            edges.add(upTargets[arc] == to ? upEdge[arc] : graph.reverse[upEdge[arc]]);
+            nodes.add(to);
+            return;
+        }
+        unpack(from, middle, arcBetween(from, middle), nodes, edges);
+        unpack(middle, to, arcBetween(middle, to), nodes, edges);
+    }
+
+    // Arcs are stored on their lower-ranked end, so look there for the one joining a and b.
+    private int arcBetween(int a, int b) {
+        int lower = rank[a] < rank[b] ? a : b;
+        int higher = lower == a ? b : a;
+        for (int arc = upOffsets[lower]; arc < upOffsets[lower + 1]; arc++) {
+            if (upTargets[arc] == higher) {
+                return arc;
+            }
+        }
+        throw new IllegalStateException("No hierarchy arc between " + a + " and " + b);
+    }
+}
@@ -0,0 +1,217 @@
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Parallel delta-stepping over the road graph.
+// Nodes are kept in buckets of width delta by tentative distance. The lowest bucket is emptied by
+// relaxing its light edges (cost <= delta) until it stops refilling, then the heavy edges of
+// everything it settled are relaxed once. Relaxations of one round run as fork-join tasks and
+// lower distances with a compare-and-set, so the result matches sequential Dijkstra.
+public class DeltaStepping implements RouteEngine {
+    // Frontiers smaller than this are relaxed on the calling thread.
+    private static final int SPLIT_THRESHOLD = 512;
+
+    private final RoadGraph graph;
+    private final double delta;
+    private final ForkJoinPool pool;
+
+    public DeltaStepping(RoadGraph graph) {
+        this(graph, meanEdgeDistance(graph), ForkJoinPool.commonPool());
+    }
+
+    public DeltaStepping(RoadGraph graph, double delta, ForkJoinPool pool) {
+        this.graph = graph;
+        this.delta = delta > 0 ? delta : 1.0;
+        this.pool = pool;
+    }
+
+    private static double meanEdgeDistance(RoadGraph graph) {
+        double total = 0.0;
+        for (double distance : graph.distance) {
+            total += distance;
+        }
+        return graph.edgeCount() == 0 ? 1.0 : total / graph.edgeCount();
+    }
+
+    @Override
+    public RoutePath route(int origin, int destination, LocalDateTime departure) {
+        int n = graph.nodeCount();
+        if (origin < 0 || origin >= n || destination < 0 || destination >= n) {
+            return RoutePath.notFound(0);
+        }
+        double[] distances = distancesFrom(origin);
+        if (distances[destination] == Double.POSITIVE_INFINITY) {
+            return RoutePath.notFound(n);
+        }
+        int[] previousEdges = new int[n];
+        int[] previousNodes = predecessors(origin, distances, previousEdges);
+        return RoutePath.fromPredecessors(origin, destination, previousNodes, previousEdges, distances[destination], n);
+    }
+
+    // One-to-all distances from start; infinity for nodes that cannot be reached.
+    public double[] distancesFrom(int start) {
+        int n = graph.nodeCount();
+        AtomicLongArray tentative = new AtomicLongArray(n);
+        long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        for (int node = 0; node < n; node++) {
+            tentative.set(node, infinity);
+        }
+        tentative.set(start, Double.doubleToRawLongBits(0.0));
+
+        List<IntBag> buckets = new ArrayList<>();
+        bucket(buckets, 0).add(start);
+        int[] seen = new int[n];
+        int stamp = 0;
+
+        for (int index = 0; index < buckets.size(); index++) {
+            IntBag settled = new IntBag();
+            while (buckets.get(index).size > 0) {
+                // Take the bucket, dropping duplicates and nodes that have since moved to a lower distance.
+                IntBag current = buckets.get(index);
+                buckets.set(index, new IntBag());
+                stamp++;
+                IntBag frontier = new IntBag();
+                for (int i = 0; i < current.size; i++) {
+                    int node = current.items[i];
+                    if (seen[node] != stamp && bucketIndex(Double.longBitsToDouble(tentative.get(node))) == index) {
+                        seen[node] = stamp;
+                        frontier.add(node);
+                    }
+                }
+                settled.addAll(frontier);
+                IntBag improved = pool.invoke(new Relax(tentative, frontier.items, 0, frontier.size, true));
+                redistribute(buckets, tentative, improved);
+            }
+            if (settled.size > 0) {
+                IntBag improved = pool.invoke(new Relax(tentative, settled.items, 0, settled.size, false));
+                redistribute(buckets, tentative, improved);
+            }
+        }
+
+        double[] distances = new double[n];
+        for (int node = 0; node < n; node++) {
+            distances[node] = Double.longBitsToDouble(tentative.get(node));
+        }
+        return distances;
+    }
+
+    // Rebuilds a predecessor array from final distances: each node points at the neighbour it is
+    // cheapest to arrive from. Roads are two-way, so a node's own edge list lists its in-neighbours,
+    // and the reverse of that edge is the one driven, which goes into previousEdges.
+    public int[] predecessors(int start, double[] distances, int[] previousEdges) {
+        int n = graph.nodeCount();
+        int[] previousNodes = new int[n];
+        Arrays.fill(previousNodes, -1);
+        for (int node = 0; node < n; node++) {
+            if (node == start || distances[node] == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            double best = Double.POSITIVE_INFINITY;
+            for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                double arrival = distances[graph.targets[e]] + graph.distance[e];
+                if (arrival < best) {
+                    best = arrival;
+                    previousNodes[node] = graph.targets[e];
+                    previousEdges[node] = graph.reverse[e];
+                }
+            }
+        }
+        return previousNodes;
+    }
+
+    private int bucketIndex(double distance) {
+        return (int) (distance / delta);
+    }
+
+    private static IntBag bucket(List<IntBag> buckets, int index) {
+        while (buckets.size() <= index) {
+            buckets.add(new IntBag());
+        }
+        return buckets.get(index);
+    }
+
+    private void redistribute(List<IntBag> buckets, AtomicLongArray tentative, IntBag improved) {
+        for (int i = 0; i < improved.size; i++) {
+            int node = improved.items[i];
+            bucket(buckets, bucketIndex(Double.longBitsToDouble(tentative.get(node)))).add(node);
+        }
+    }
+
+    // Relaxes the light or heavy edges of nodes[from..to) and returns the targets whose distance dropped.
+    private class Relax extends RecursiveTask<IntBag> {
+        private static final long serialVersionUID = 1L;
+
+        private final AtomicLongArray tentative;
+        private final int[] nodes;
+        private final int from;
+        private final int to;
+        private final boolean light;
+
+        Relax(AtomicLongArray tentative, int[] nodes, int from, int to, boolean light) {
+            this.tentative = tentative;
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.light = light;
+        }
+
+        @Override
+        protected IntBag compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                Relax left = new Relax(tentative, nodes, from, middle, light);
+                left.fork();
+                IntBag right = new Relax(tentative, nodes, middle, to, light).compute();
+                IntBag result = left.join();
+                result.addAll(right);
+                return result;
+            }
+
+            IntBag improved = new IntBag();
+            for (int i = from; i < to; i++) {
+                int node = nodes[i];
+                double base = Double.longBitsToDouble(tentative.get(node));
+                for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                    double cost = graph.distance[e];
+                    if ((cost <= delta) != light) {
+                        continue;
+                    }
+                    int neighbor = graph.targets[e];
+                    double candidate = base + cost;
+                    long current = tentative.get(neighbor);
+                    while (candidate < Double.longBitsToDouble(current)) {
+                        if (tentative.compareAndSet(neighbor, current, Double.doubleToRawLongBits(candidate))) {
+                            improved.add(neighbor);
+                            break;
+                        }
+                        current = tentative.get(neighbor);
+                    }
+                }
+            }
+            return improved;
+        }
+    }
+
+    // Growable list of node ids.
+    static class IntBag {
+        int[] items = new int[8];
+        int size;
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+        }
+
+        void addAll(IntBag other) {
+            if (size + other.size > items.length) {
+                items = Arrays.copyOf(items, Math.max(items.length * 2, size + other.size));
+            }
+            System.arraycopy(other.items, 0, items, size, other.size);
+            size += other.size;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+// Compares parallel delta-stepping with sequential Dijkstra on a synthetic road-like graph:
+// a square grid with random road lengths plus a sprinkling of long highway links.
+// Usage: java DeltaSteppingBenchmark [gridSide] [sources] [threads]
+public class DeltaSteppingBenchmark {
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int sources = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        RoadGraph graph = syntheticGrid(side, 42);
+        System.out.printf("Synthetic graph: %d nodes, %d directed edges, %d threads\n",
+                graph.nodeCount(), graph.edgeCount(), threads);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        DeltaStepping deltaStepping = new DeltaStepping(graph, 20.0, pool);
+        Random random = new Random(7);
+        long sequentialTotal = 0;
+        long parallelTotal = 0;
+        for (int i = 0; i < sources; i++) {
+            int source = random.nextInt(graph.nodeCount());
+
+            long start = System.nanoTime();
+            double[] expected = Dijkstra.distancesFrom(graph, source);
+            long sequential = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            double[] actual = deltaStepping.distancesFrom(source);
+            long parallel = System.nanoTime() - start;
+
+            sequentialTotal += sequential;
+            parallelTotal += parallel;
+            System.out.printf("Source %d: Dijkstra %d ms, delta-stepping %d ms, identical distances: %b\n",
+                    source, sequential / 1_000_000, parallel / 1_000_000, Arrays.equals(expected, actual));
+        }
+        pool.shutdown();
+        System.out.printf("Speedup: %.2fx\n", (double) sequentialTotal / parallelTotal);
+    }
+
+    static RoadGraph syntheticGrid(int side, long seed) {
+        Random random = new Random(seed);
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        int n = side * side;
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                int node = row * side + column;
+                if (column + 1 < side) {
+                    builder.addEdge(node, node + 1, 5 + random.nextInt(40), 60, 0);
+                }
+                if (row + 1 < side) {
+                    builder.addEdge(node, node + side, 5 + random.nextInt(40), 60, 0);
+                }
+            }
+        }
+        for (int i = 0; i < n / 100; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b) {
+                builder.addEdge(a, b, 200 + random.nextInt(800), 70, 0);
+            }
+        }
+        builder.ensureNodes(n);
+        return builder.build();
+    }
+}
@@ -2,227 +2,414 @@ import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.stream.IntStream;
 
-class City {
-    String name;
-    String state;
-    double latitude;
-    double longitude;
+public class Dijkstra implements RouteEngine {
+    // What a matrix cell holds: road miles, minutes after departure, or gallons of fuel.
+    public enum Metric { DISTANCE, ETA, GALLONS }
 
-    public City(String name, String state) {
-        this.name = name;
-        this.state = state;
-    }
+    // Everything a query reads comes from this snapshot, which is replaced as a whole on reload.
+    // A query takes it once at the start, so concurrent queries need no locking, and every
+    // search allocates its own distance, predecessor and heap arrays.
+    private volatile RoadNetwork network = RoadNetwork.EMPTY;
+    private final RouteCache<Trip> tripCache = new RouteCache<>(TRIP_CACHE_SIZE);
+    static final int TRIP_CACHE_SIZE = 1024;
+    // Room for roughly a thousand trees of the current 151-city graph.
+    static final long TREE_CACHE_BYTES = 2L << 20;
+    private final ShortestPathTrees trees;
 
-    @Override
-    public boolean equals(Object obj) {
-        if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-        City city = (City) obj;
-        return name.equals(city.name) && state.equals(city.state);
-    }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(name, state);
+    public Dijkstra() {
+        this(TREE_CACHE_BYTES);
     }
 
-    @Override
-    public String toString() {
-        return name;
+    // treeCacheBytes bounds the memory kept for shortest-path trees of recent origins.
+    public Dijkstra(long treeCacheBytes) {
+        this.trees = new ShortestPathTrees(treeCacheBytes);
     }
-}
 
-class Edge {
-    City source;
-    City destination;
-    double distance;
-    double speed;
-    double gradient;
-
-    public Edge(City source, City destination, double distance, double speed, double gradient) {
-        this.source = source;
-        this.destination = destination;
-        this.distance = distance;
-        this.speed = speed;
-        this.gradient = gradient;
+    RoadNetwork network() {
+        return network;
     }
-}
 
-class WeatherData {
-    Map<LocalDateTime, String> hourlyConditions;
-    double latitude;
-    double longitude;
+    RoadGraph graph() {
+        return network.graph;
+    }
 
-    public WeatherData(double latitude, double longitude) {
-        this.hourlyConditions = new HashMap<>();
-        this.latitude = latitude;
-        this.longitude = longitude;
+    CityRegistry cities() {
+        return network.cities;
     }
 
-}
+    public synchronized void readDataFromCSV(String csvFilePath) {
+        publish(network.withRoads(csvFilePath));
+    }
 
-public class Dijkstra {
-    private Map<City, List<Edge>> graph;
-    private static Map<City, WeatherData> weatherDataMap;
-    public static List<List<String>> cityAttributes;
-    private Set<City> visitedCities; 
+    public synchronized void readWeatherData(String weatherFilePath) {
+        publish(network.withWeather(weatherFilePath));
+    }
 
-    private Map<String, Double[]> cityCoordinates = new HashMap<>();
+    private void publish(RoadNetwork next) {
+        network = next;
+        tripCache.invalidate();
+        trees.invalidate();
+    }
 
+    RouteCache<Trip> tripCache() {
+        return tripCache;
+    }
 
-    public Dijkstra() {
-        this.graph = new LinkedHashMap<>();
-        this.weatherDataMap = new HashMap<>();
-        this.visitedCities = new HashSet<>();
+    ShortestPathTrees trees() {
+        return trees;
     }
 
-    public void addEdge(City source, City destination, double distance, double speed, double gradient) {
-        if (!source.state.equals(destination.state)) {
-            source.state = source.state.isEmpty() ? destination.state : source.state;
-            destination.state = destination.state.isEmpty() ? source.state : destination.state;
+    // For every city, the edge its shortest route from start arrives through, or -1 for start
+    // itself and for cities that cannot be reached. The returned array is a copy; the cached
+    // tree it came from stays untouched. Routes here are by road distance, so startTime does
+    // not change the answer.
+    public int[] findShortestPaths(int start, String startTime) {
+        RoadNetwork data = network;
+        if (start < 0 || start >= data.graph.nodeCount()) {
+            int[] previousEdges = new int[data.graph.nodeCount()];
+            Arrays.fill(previousEdges, -1);
+            return previousEdges;
         }
+        return shortestPathTree(data, start).parentEdge.clone();
+    }
 
-        List<Edge> sourceEdges = graph.computeIfAbsent(source, k -> new ArrayList<>());
-        List<Edge> destinationEdges = graph.computeIfAbsent(destination, k -> new ArrayList<>());
-        if (sourceEdges.stream().noneMatch(edge -> edge.destination.equals(destination))
-                && destinationEdges.stream().noneMatch(edge -> edge.destination.equals(source))) {
-            sourceEdges.add(new Edge(source, destination, distance, speed, gradient));
-            destinationEdges.add(new Edge(destination, source, distance, speed, gradient));
+    // Full tree of shortest routes from the origin, shared by every destination and departure
+    // time asked for from that origin until the data is reloaded.
+    private ShortestPathTrees.Tree shortestPathTree(RoadNetwork data, int origin) {
+        ShortestPathTrees.Tree tree = trees.get(origin, data.version);
+        if (tree == null) {
+            tree = buildTree(data.graph, origin);
+            trees.put(origin, tree, data.version);
         }
+        return tree;
     }
 
-    public void readDataFromCSV(String csvFilePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(csvFilePath))) {
-            String line;
-            boolean firstLine = true;
-            while ((line = br.readLine()) != null) {
-                if (firstLine) {
-                    firstLine = false;
-                    continue;
+    private static ShortestPathTrees.Tree buildTree(RoadGraph graph, int start) {
+        int n = graph.nodeCount();
+        double[] distances = new double[n];
+        int[] previousNodes = new int[n];
+        int[] previousEdges = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(previousNodes, -1);
+        Arrays.fill(previousEdges, -1);
+        IndexedMinHeap priorityQueue = new IndexedMinHeap(n);
+        distances[start] = 0.0;
+        priorityQueue.insert(start, 0.0);
+
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        double[] edgeDistance = graph.distance;
+        while (!priorityQueue.isEmpty()) {
+            int current = priorityQueue.poll();
+
+            for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                int neighbor = targets[e];
+                double newDistance = distances[current] + edgeDistance[e];
+
+                if (newDistance < distances[neighbor]) {
+                    distances[neighbor] = newDistance;
+                    previousNodes[neighbor] = current;
+                    previousEdges[neighbor] = e;
+                    priorityQueue.push(neighbor, newDistance);
                 }
-                String[] parts = line.split(",");
-                String stateOrigin = parts[0].trim().toLowerCase().replaceAll("\\s", "");
-                String stateDestination = parts[1].trim().toLowerCase().replaceAll("\\s", "");
-                String cityOrigin = parts[2].trim().toLowerCase().replaceAll("\\s", "");
-                String cityDestination = parts[3].trim().toLowerCase().replaceAll("\\s", "");
-                double distance = Double.parseDouble(parts[4].trim());
-                double speed = Double.parseDouble(parts[5].trim());
-                double gradient = Double.parseDouble(parts[8].trim());
-
-                addEdge(new City(cityOrigin, stateOrigin), new City(cityDestination, stateDestination), distance, speed, gradient);
             }
-        } catch (IOException | NumberFormatException e) {
-            e.printStackTrace(); 
         }
+
+        return new ShortestPathTrees.Tree(start, previousNodes, previousEdges, distances);
     }
 
-    public void readWeatherData(String weatherFilePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(weatherFilePath))) {
-            String line;
-            boolean firstLine = true;
-            String[] firstLineData = null;
-            while ((line = br.readLine()) != null) {
-                if (firstLine) {
-                    firstLineData = line.split(",");
-                    firstLine = false;
-                    continue;
-                }
-                String[] parts = line.split(",");
-                String cityName = parts[1].trim().toLowerCase().replaceAll("\\s", "");
-                String stateName = parts[0].trim().toLowerCase().replaceAll("\\s", "");
+    // Engines offered by main; all of them search the currently loaded snapshot. Each one is
+    // built the first time it is asked for and kept with that snapshot.
+    public RouteEngine engine(int choice) {
+        return engine(network, choice);
+    }
 
-                double latitude = Double.parseDouble(parts[parts.length - 2].trim());
-                double longitude = Double.parseDouble(parts[parts.length - 1].trim());
+    private RouteEngine engine(RoadNetwork data, int choice) {
+        return data.engines.computeIfAbsent(choice, c -> createEngine(data, c));
+    }
 
-                WeatherData weatherData = new WeatherData(latitude, longitude);
-                for (int i = 2; i < parts.length - 2; i++) {
-                    String dateTimeString = (firstLineData[i]).trim();
+    private RouteEngine createEngine(RoadNetwork data, int choice) {
+        RoadGraph graph = data.graph;
+        switch (choice) {
+            case 2:
+                return new BidirectionalDijkstra(graph);
+            case 3:
+                return new AStar(graph, data.cities);
+            case 4:
+                return new LandmarkAStar(graph, Landmarks.loadOrSelect(graph, data.graphFilePath + ".landmarks", 8));
+            case 5:
+                return ContractionHierarchy.build(graph);
+            case 6:
+                return new SPFA(graph);
+            case 7:
+                return new DeltaStepping(graph);
+            case 8:
+                return new TimeDependentDijkstra(graph, data.weatherIndex());
+            case 9:
+                return new StateOverlay(graph, data.cities).customize(EdgeMetrics.distance(graph));
+            default:
+                return (origin, destination, departure) -> route(data, origin, destination, departure);
+        }
+    }
 
-                    if (!dateTimeString.equalsIgnoreCase("Latitude")) {  
-                        String conditions = parts[i].trim().toLowerCase().replaceAll("\\s", "");
-                        LocalDateTime dateTime = LocalDateTime.parse(dateTimeString, DateTimeFormatter.ofPattern("MM/dd/yyyy H:mm", Locale.ENGLISH));
+    // One-to-all distances on a graph, for preprocessing such as landmark selection.
+    public static double[] distancesFrom(RoadGraph graph, int start) {
+        int n = graph.nodeCount();
+        double[] distances = new double[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap priorityQueue = new IndexedMinHeap(n);
+        distances[start] = 0.0;
+        priorityQueue.insert(start, 0.0);
 
-                        weatherData.hourlyConditions.put(dateTime, conditions);
-                    }
+        while (!priorityQueue.isEmpty()) {
+            int current = priorityQueue.poll();
+            for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                int neighbor = graph.targets[e];
+                double newDistance = distances[current] + graph.distance[e];
+                if (newDistance < distances[neighbor]) {
+                    distances[neighbor] = newDistance;
+                    priorityQueue.push(neighbor, newDistance);
                 }
-                weatherDataMap.put(new City(cityName, stateName), weatherData);
             }
-        } catch (IOException | NumberFormatException e) {
-            e.printStackTrace(); 
         }
+        return distances;
     }
 
+    // Served from the origin's cached shortest-path tree when there is one. Otherwise the first
+    // query from an origin runs a search that stops once the destination is settled, and only
+    // a second query from the same origin pays for the full tree that fills the cache.
+    @Override
+    public RoutePath route(int origin, int destination, LocalDateTime departure) {
+        return route(network, origin, destination, departure);
+    }
 
-    public Map<City, City> findShortestPaths(City start, String startTime) {
-        Map<City, Double> distances = new HashMap<>();
-        Map<City, City> previousNodes = new HashMap<>();
-        PriorityQueue<City> priorityQueue = new PriorityQueue<>(Comparator.comparingDouble(distances::get));
-        Set<City> visited = new HashSet<>();
-
-        distances.put(start, 0.0);
-        priorityQueue.add(start);
-        cityAttributes = new ArrayList<>();
+    private RoutePath route(RoadNetwork data, int origin, int destination, LocalDateTime departure) {
+        int n = data.graph.nodeCount();
+        if (origin < 0 || origin >= n || destination < 0 || destination >= n) {
+            return RoutePath.notFound(0);
+        }
+        ShortestPathTrees.Tree tree = trees.get(origin, data.version);
+        if (tree != null) {
+            return tree.path(destination);
+        }
+        if (trees.missedBefore(origin, data.version)) {
+            tree = buildTree(data.graph, origin);
+            trees.put(origin, tree, data.version);
+            return tree.path(destination);
+        }
+        return searchTo(data.graph, origin, destination);
+    }
 
+    // Same search as buildTree, but it returns as soon as the destination is settled. Nodes are
+    // settled in the same order, so the route is the one the full tree would give.
+    private static RoutePath searchTo(RoadGraph graph, int origin, int destination) {
+        int n = graph.nodeCount();
+        double[] distances = new double[n];
+        int[] previousNodes = new int[n];
+        int[] previousEdges = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap priorityQueue = new IndexedMinHeap(n);
+        distances[origin] = 0.0;
+        priorityQueue.insert(origin, 0.0);
+
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        double[] edgeDistance = graph.distance;
+        int settled = 0;
         while (!priorityQueue.isEmpty()) {
-            City current = priorityQueue.poll();
-
-            if (visited.contains(current)) continue;
-
-            visited.add(current);
+            int current = priorityQueue.poll();
+            settled++;
+            if (current == destination) {
+                return RoutePath.fromPredecessors(origin, destination, previousNodes, previousEdges, distances[destination], settled);
+            }
 
-            for (Edge edge : graph.getOrDefault(current, Collections.emptyList())) {
-                City neighbor = edge.destination;
-                double newDistance = distances.get(current) + edge.distance;
+            for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                int neighbor = targets[e];
+                double newDistance = distances[current] + edgeDistance[e];
 
-                if (!distances.containsKey(neighbor) || newDistance < distances.get(neighbor)) {
-                    distances.put(neighbor, newDistance);
-                    previousNodes.put(neighbor, current);
-                    priorityQueue.add(neighbor);
+                if (newDistance < distances[neighbor]) {
+                    distances[neighbor] = newDistance;
+                    previousNodes[neighbor] = current;
+                    previousEdges[neighbor] = e;
+                    priorityQueue.push(neighbor, newDistance);
                 }
             }
         }
 
-        return previousNodes;
+        return RoutePath.notFound(settled);
     }
 
-    public List<City> getShortestPath(City start, City destination, Map<City, City> previousNodes) {
-        List<City> path = new ArrayList<>();
-        City current = destination;
+    // Origins x destinations table for the given metric, with infinity where there is no route.
+    // Each origin runs one search that stops once every destination is settled, and origins run
+    // in parallel. ETA and gallons follow the shortest-distance route with the same per-leg rules
+    // as the trip printed by main, accumulated along the search tree as nodes are settled.
+    public double[][] matrix(int[] origins, int[] destinations, LocalDateTime departure, Metric metric) {
+        RoadNetwork data = network;
+        double[][] table = new double[origins.length][];
+        IntStream.range(0, origins.length).parallel()
+                .forEach(row -> table[row] = matrixRow(data, origins[row], destinations, departure, metric));
+        return table;
+    }
 
-        while (current != null && !current.equals(start)) {
-            path.add(current);
-            current = previousNodes.get(current);
+    private double[] matrixRow(RoadNetwork data, int origin, int[] destinations, LocalDateTime departure, Metric metric) {
+        RoadGraph graph = data.graph;
+        int n = graph.nodeCount();
+        double[] row = new double[destinations.length];
+        Arrays.fill(row, Double.POSITIVE_INFINITY);
+        if (origin < 0 || origin >= n) {
+            return row;
         }
 
-        if (current != null && current.equals(start)) {
-            path.add(start);
-            Collections.reverse(path);
+        boolean[] wanted = new boolean[n];
+        int remaining = 0;
+        for (int destination : destinations) {
+            if (destination >= 0 && destination < n && !wanted[destination]) {
+                wanted[destination] = true;
+                remaining++;
+            }
         }
 
-        return path;
-    }
-
-    public double calculatePathDistance(List<City> path) {
-        double distance = 0.0;
+        WeatherIndex weather = data.weatherIndex();
+        double start = departure == null ? 0.0 : weather.minutesFrom(departure);
+        double[] distances = new double[n];
+        int[] previousEdge = new int[n];
+        int[] previousNodes = new int[n];
+        long[] minutes = new long[n];
+        double[] gallons = new double[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap priorityQueue = new IndexedMinHeap(n);
+        distances[origin] = 0.0;
+        priorityQueue.insert(origin, 0.0);
+
+        while (!priorityQueue.isEmpty() && remaining > 0) {
+            int current = priorityQueue.poll();
+            if (current != origin && metric != Metric.DISTANCE) {
+                int previous = previousNodes[current];
+                int edge = previousEdge[current];
+                minutes[current] = minutes[previous];
+                gallons[current] = gallons[previous];
+                if (data.weatherFor(current) != null) {
+                    int penalty = weather.penalty(current, start + minutes[previous]);
+                    double distanceGradient = (graph.distance[edge] + penalty) * (1 + graph.gradient[edge]);
+                    minutes[current] += (long) (distanceGradient / graph.speed[edge] * 60);
+                    gallons[current] += distanceGradient / 38;
+                }
+            }
+            if (wanted[current]) {
+                remaining--;
+            }
 
-        for (int i = 0; i < path.size() - 1; i++) {
-            City current = path.get(i);
-            City next = path.get(i + 1);
+            for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                int neighbor = graph.targets[e];
+                double newDistance = distances[current] + graph.distance[e];
 
-            if (graph.containsKey(current)) {
-                for (Edge edge : graph.get(current)) {
-                    if (edge.destination.equals(next)) {
-                        distance += edge.distance;
-                        break;
-                    }
+                if (newDistance < distances[neighbor]) {
+                    distances[neighbor] = newDistance;
+                    previousNodes[neighbor] = current;
+                    previousEdge[neighbor] = e;
+                    priorityQueue.push(neighbor, newDistance);
                 }
-            } else {
-                System.out.println("The City name is not present in Data");
             }
         }
 
-        return distance;
+        for (int i = 0; i < destinations.length; i++) {
+            int destination = destinations[i];
+            if (destination < 0 || destination >= n || distances[destination] == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            switch (metric) {
+                case ETA:
+                    row[i] = minutes[destination];
+                    break;
+                case GALLONS:
+                    row[i] = gallons[destination];
+                    break;
+                default:
+                    row[i] = distances[destination];
+            }
+        }
+        return row;
+    }
+
+    // Route and leg replay for a query, served from the trip cache when the same origin,
+    // destination and preference were asked for in the same departure hour. A hit with a
+    // different departure minute reuses the route and only replays the legs.
+    public Trip trip(int origin, int destination, LocalDateTime departure, int preference) {
+        RoadNetwork data = network;
+        RouteCache.Key key = new RouteCache.Key(origin, destination, roundDownToNearestHour(departure), preference);
+        Trip cached = tripCache.get(key, data.version);
+        if (cached != null) {
+            return cached.departure.equals(departure) ? cached : simulateTrip(data, cached.route, departure, preference);
+        }
+        RouteEngine engine = engine(data, preference);
+        Trip trip = simulator(data, engine).simulate(engine.route(origin, destination, departure), departure);
+        tripCache.put(key, trip, data.version);
+        return trip;
+    }
+
+    // Drives the route from the departure time; see TripSimulator for the per-leg rules.
+    public Trip simulateTrip(RoutePath route, LocalDateTime departure) {
+        return simulateTrip(network, route, departure);
+    }
+
+    private static Trip simulateTrip(RoadNetwork data, RoutePath route, LocalDateTime departure) {
+        return new TripSimulator(data).simulate(route, departure);
+    }
+
+    private Trip simulateTrip(RoadNetwork data, RoutePath route, LocalDateTime departure, int preference) {
+        return simulator(data, engine(data, preference)).simulate(route, departure);
+    }
+
+    // A route from the time-dependent engine is replayed with that engine's timing, so the trip
+    // shows the arrival it was chosen for; every other engine uses the usual per-leg rules.
+    private static TripSimulator simulator(RoadNetwork data, RouteEngine engine) {
+        return engine instanceof TimeDependentDijkstra
+                ? new TripSimulator(data, (TimeDependentDijkstra) engine)
+                : new TripSimulator(data);
+    }
+
+    // Up to k loopless routes in order of length, the shortest first.
+    public List<RoutePath> alternatives(int origin, int destination, int k) {
+        return new KShortestPaths(network.graph).find(origin, destination, k);
+    }
+
+    // The k cities closest to the origin by road, nearest first, read off the origin's cached tree.
+    public int[] nearestCities(int origin, int k) {
+        RoadNetwork data = network;
+        if (origin < 0 || origin >= data.graph.nodeCount() || k <= 0) {
+            return new int[0];
+        }
+        double[] distances = shortestPathTree(data, origin).dist;
+        return IntStream.range(0, distances.length)
+                .filter(node -> node != origin && distances[node] != Double.POSITIVE_INFINITY)
+                .boxed()
+                .sorted(Comparator.comparingDouble(node -> distances[node]))
+                .limit(k)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    public boolean hasPath(int destination, int[] previousEdges) {
+        return destination >= 0 && destination < previousEdges.length && previousEdges[destination] != -1;
+    }
+
+    // Route from start to destination out of the array findShortestPaths returned, with the
+    // edge of every leg, so nothing has to be looked up in the neighbour lists afterwards.
+    public RoutePath getShortestPath(int start, int destination, int[] previousEdges) {
+        if (destination == start) {
+            return RoutePath.single(start, 0);
+        }
+        if (!hasPath(destination, previousEdges)) {
+            return RoutePath.notFound(0);
+        }
+        return RoutePath.fromEdges(network.graph, start, destination, previousEdges, 0);
+    }
+
+    public double calculatePathDistance(RoutePath path) {
+        return path.roadDistance(network.graph);
     }
     public static void writeCityAttributesToCSV(List<List<String>> cityAttributes, String csvFilePath) {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(csvFilePath))) {
@@ -247,116 +434,54 @@ public class Dijkstra {
         dijkstra.readWeatherData("collected Weather.csv");
         Scanner scanner = new Scanner(System.in);
         System.out.print("Enter source city: ");
-        String startCity = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String startCity = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter source State: ");
-        String startState = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String startState = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter destination city: ");
-        String endCity = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String endCity = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter destination State: ");
-        String endState = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String endState = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter Start Time (format: MM/DD/YYYY hh:mm):");
         String startTime = scanner.nextLine();
+        System.out.println("Enter the Algorithm to be run:\n1. Dijkstra\n2. Bidirectional Dijkstra\n3. A*\n4. A* with landmarks (ALT)\n5. Contraction Hierarchies\n6. Bellman-Ford (queue-based)\n7. Delta-stepping (parallel)\n8. Fastest in forecast weather (time-dependent)\n9. State overlay (CRP)");
+        int choice = Integer.parseInt(scanner.nextLine().trim());
         scanner.close();
-        City origin = new City(startCity, startState);
-        System.out.println("Origin: " + origin);
-        City destination = new City(endCity, endState);
-
-        Map<City, City> previousNodes = dijkstra.findShortestPaths(origin, startTime);
-
-        if (previousNodes.containsKey(destination)) {
-            List<City> shortestPath = dijkstra.getShortestPath(origin, destination, previousNodes);
-            double totalGallons = 0.0;
-
-            double shortestDistance = dijkstra.calculatePathDistance(shortestPath);
-            City previousCity = new City("", "");
-
-            LocalDateTime currentDateTime = LocalDateTime.parse(startTime, DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm"));
-
-            
-            WeatherData startWeather = dijkstra.weatherDataMap.get(origin);
+        RoadNetwork data = dijkstra.network();
+        int originId = data.cities.find(startCity, startState);
+        int destinationId = data.cities.find(endCity, endState);
+        System.out.println("Origin: " + startCity);
+
+        LocalDateTime departure = LocalDateTime.parse(startTime, DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm"));
+        Trip trip = dijkstra.trip(originId, destinationId, departure, choice);
+        List<List<String>> cityAttributes = new ArrayList<>();
+        Set<City> visitedCities = new HashSet<>();
+
+        if (trip.route.found() && originId != destinationId) {
+            City origin = data.cities.city(originId);
+            City destination = data.cities.city(destinationId);
+            double shortestDistance = trip.route.distance;
+
+            WeatherData startWeather = data.weatherFor(originId);
             if (startWeather != null) {
                 System.out.printf("Starting Latitude: %.2f, Longitude: %.2f\n", startWeather.latitude, startWeather.longitude);
             }
 
-           
             System.out.print(startCity);
-            if (!dijkstra.visitedCities.contains(origin)) {
-                double distance = 0.0;
-                double gallons = 0.0;
-                String weatherCondition = dijkstra.getWeatherCondition(origin, currentDateTime);
-
-                
-                List<String> attributes = new ArrayList<>();
-                attributes.add(origin.name);
-                attributes.add(origin.state);
-                attributes.add(String.valueOf(distance));
-                attributes.add(String.valueOf(gallons));
-                attributes.add(weatherCondition);
-                attributes.add(String.valueOf(startWeather.latitude));  
-                attributes.add(String.valueOf(startWeather.longitude));
-                cityAttributes.add(attributes);
-
-                currentDateTime = currentDateTime.plusMinutes(0); 
-
-                System.out.printf("--distance %.2f miles", distance);
-                System.out.printf("--ETA: %s ", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
-                System.out.printf("--Gallons required: %.2f -- Weather: %s", gallons, weatherCondition);
-
-                dijkstra.visitedCities.add(origin);
-            }
-            for (int i = 0; i < shortestPath.size(); i++) {
-                City city = shortestPath.get(i);
-
+            for (int i = 0; i < trip.legCount(); i++) {
+                City city = trip.city(i);
+                if (visitedCities.contains(city)) {
+                    continue;
+                }
                 if (i > 0) {
-                    double distance = 0.0;
-                    double speed = 0.0;
-                    double duration = 0.0;
-                    double gallons = 0.0;
-                    double gradient = 0.0;
-                    double distanceWeather = 0.0;
-                    double distanceGradient = 0.0;
-
-                    for (Edge edge : dijkstra.graph.get(shortestPath.get(i - 1))) {
-                        if (edge.destination.equals(city)) {
-                            distance = edge.distance;
-                            gradient = edge.gradient;
-                            WeatherData cityWeather = dijkstra.weatherDataMap.get(city);
-                            if (cityWeather != null) {
-                                distanceWeather = dijkstra.checkWeatherCondition(distance, dijkstra.getWeatherCondition(city, currentDateTime));
-                                distanceGradient = distanceWeather * (1 + gradient);
-                                speed = edge.speed;
-                                duration = distanceGradient / speed;
-                                gallons = distanceGradient / 38;
-                                String formattedGallons = String.format("%.2f", gallons);
-                                List<String> attributes = new ArrayList<>();
-                                attributes.add(city.name);
-                                attributes.add(city.state);
-                                attributes.add(String.valueOf(distance));
-                                attributes.add(String.valueOf(formattedGallons));
-                                attributes.add(dijkstra.getWeatherCondition(city, currentDateTime));
-                                attributes.add(String.valueOf(cityWeather.latitude));  
-                                attributes.add(String.valueOf(cityWeather.longitude));
-                                cityAttributes.add(attributes);
-                                currentDateTime = currentDateTime.plusMinutes((long) (duration * 60));
-                                totalGallons += gallons;
-                                if (!dijkstra.visitedCities.contains(city)) {
-                                    System.out.print("---->");
-                                    System.out.print(city);
-                                    System.out.printf("--distance %.2f miles", distance);
-                                    System.out.printf("--ETA: %s ", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
-                                    System.out.printf("--Gallons required: %s -- Weather: %s", formattedGallons, dijkstra.getWeatherCondition(city, currentDateTime));
-                                    dijkstra.visitedCities.add(city);
-                                }
-
-                                if (city.equals(destination)) {
-                                    break;  
-                                }
-                            }
-                        }
-                    }
+                    System.out.print("---->");
+                    System.out.print(city);
                 }
-                previousCity = city;
+                System.out.printf("--distance %.2f miles", trip.legs.distance[i]);
+                System.out.printf("--ETA: %s ", trip.arrival(i).format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
+                System.out.printf("--Gallons required: %.2f -- Weather: %s", trip.legs.gallons[i], trip.arrivalWeather(i));
+                visitedCities.add(city);
             }
+            cityAttributes = trip.cityAttributes();
 
             System.out.println();
 
@@ -368,59 +493,17 @@ public class Dijkstra {
             }
             writeCityAttributesToCSV(cityAttributes, "city_attributes.csv");
 
-            System.out.printf("\nShortest distance from %s to %s: %.2f, total gallons: %.2f\n", origin, destination, shortestDistance, totalGallons);
-            System.out.printf("End Time: %s\n", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
+            System.out.printf("\nShortest distance from %s to %s: %.2f, total gallons: %.2f\n", origin, destination, shortestDistance, trip.totalGallons());
+            System.out.printf("End Time: %s\n", trip.endTime().format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
         } else {
-            System.out.println("No path found from " + origin + " to " + destination);
+            System.out.println("No path found from " + startCity + " to " + endCity);
         }
     }
 
 
 
 
-    private String getWeatherCondition(City city, LocalDateTime dateTime) {
-        WeatherData weatherData = weatherDataMap.get(city);
-
-        if (weatherData != null) {
-            LocalDateTime roundedDateTime = roundDownToNearestHour(dateTime);
-            if (weatherData.hourlyConditions.containsKey(roundedDateTime)) {
-                return weatherData.hourlyConditions.get(roundedDateTime);
-            } else {
-                return "Unknown";
-            }
-        }
-
-        return "Unknown";
-    }
-
-    private LocalDateTime roundDownToNearestHour(LocalDateTime dateTime) {
+    private static LocalDateTime roundDownToNearestHour(LocalDateTime dateTime) {
         return dateTime.withMinute(0).withSecond(0).withNano(0);
     }
-
-
-
-    private double checkWeatherCondition(double distance, String condition) {
-        switch (condition) {
-            case "fair":
-                distance = distance + 0;
-                break;
-            case "partlycloudy":
-                distance = distance + 1;
-                break;
-            case "mostlycloudy":
-                distance = distance + 2;
-                break;
-            case "cloudy":
-                distance = distance + 3;
-                break;
-            case "lightrain":
-                distance = distance + 4;
-                break;
-            case "heavyrain":
-                distance = distance + 5;
-                break;
-
-        }
-        return distance;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+// Per-edge cost arrays, indexed by RoadGraph edge id, for engines that can search on
+// something other than plain road distance. Weather-based metrics use the conditions
+// of the city an edge leads to at one given minute of the forecast.
+public class EdgeMetrics {
+    public static double[] distance(RoadGraph graph) {
+        return graph.distance.clone();
+    }
+
+    // Gallons at 38 miles per gallon, with climbs costing more and descents less.
+    public static double[] gallons(RoadGraph graph) {
+        double[] costs = new double[graph.edgeCount()];
+        for (int e = 0; e < costs.length; e++) {
+            costs[e] = graph.distance[e] * (1 + graph.gradient[e]) / 38;
+        }
+        return costs;
+    }
+
+    // Only the weather penalty in miles, so the route with the calmest weather wins.
+    public static double[] weatherPenalty(RoadGraph graph, WeatherIndex weather, double minute) {
+        double[] costs = new double[graph.edgeCount()];
+        for (int u = 0; u < graph.nodeCount(); u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                costs[e] = weather.penalty(graph.targets[e], minute);
+            }
+        }
+        return costs;
+    }
+
+    // Distance plus the weather penalty, like Dijkstra2's safety preference.
+    public static double[] safety(RoadGraph graph, WeatherIndex weather, double minute) {
+        double[] costs = weatherPenalty(graph, weather, minute);
+        for (int e = 0; e < costs.length; e++) {
+            costs[e] += graph.distance[e];
+        }
+        return costs;
+    }
+}
@@ -0,0 +1,290 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+// Hub-labeling distance oracle. Every city keeps a label of (hub, distance) pairs sorted by hub,
+// chosen so that any two cities share a hub on a shortest path between them; a distance query
+// is then a merge of two short sorted lists instead of a graph search.
+public class HubLabels {
+    private static final int MAGIC = 0x48554231; // "HUB1"
+    // Magic, fingerprint, node count and number of label entries.
+    private static final int HEADER_BYTES = 4 + 8 + 4 + 4;
+
+    // Labels in CSR form: the hubs of node v are hubs[offsets[v]] .. hubs[offsets[v + 1] - 1].
+    // Hubs are numbered in the order they were processed, which keeps every label sorted.
+    final int[] offsets;
+    final int[] hubs;
+    final double[] distances;
+    private final long fingerprint;
+
+    private HubLabels(int[] offsets, int[] hubs, double[] distances, long fingerprint) {
+        this.offsets = offsets;
+        this.hubs = hubs;
+        this.distances = distances;
+        this.fingerprint = fingerprint;
+    }
+
+    public int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    public int labelEntries() {
+        return hubs.length;
+    }
+
+    // Shortest road distance from a to b, or infinity when they are not connected.
+    public double distance(int a, int b) {
+        if (a < 0 || a >= nodeCount() || b < 0 || b >= nodeCount()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        int i = offsets[a];
+        int j = offsets[b];
+        int endA = offsets[a + 1];
+        int endB = offsets[b + 1];
+        while (i < endA && j < endB) {
+            if (hubs[i] < hubs[j]) {
+                i++;
+            } else if (hubs[i] > hubs[j]) {
+                j++;
+            } else {
+                best = Math.min(best, distances[i] + distances[j]);
+                i++;
+                j++;
+            }
+        }
+        return best;
+    }
+
+    // Pruned labeling: hubs are taken from the top of the contraction hierarchy down, and a
+    // Dijkstra from each hub stops expanding wherever the labels built so far already give the answer.
+    public static HubLabels build(RoadGraph graph) {
+        int n = graph.nodeCount();
+        int[] rank = ContractionHierarchy.build(graph).rank;
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(rank[b], rank[a]));
+
+        List<List<Integer>> labelHubs = new ArrayList<>();
+        List<List<Double>> labelDistances = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            labelHubs.add(new ArrayList<>());
+            labelDistances.add(new ArrayList<>());
+        }
+
+        // Distances from the current hub to each of its own label hubs, for quick pruning checks.
+        double[] hubToHub = new double[n];
+        Arrays.fill(hubToHub, Double.POSITIVE_INFINITY);
+        double[] searchDistances = new double[n];
+        Arrays.fill(searchDistances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+        List<Integer> touched = new ArrayList<>();
+
+        for (int hubIndex = 0; hubIndex < n; hubIndex++) {
+            int hub = order[hubIndex];
+            List<Integer> ownHubs = labelHubs.get(hub);
+            for (int i = 0; i < ownHubs.size(); i++) {
+                hubToHub[ownHubs.get(i)] = labelDistances.get(hub).get(i);
+            }
+
+            searchDistances[hub] = 0.0;
+            touched.add(hub);
+            queue.insert(hub, 0.0);
+            while (!queue.isEmpty()) {
+                int current = queue.poll();
+                double distance = searchDistances[current];
+
+                boolean covered = false;
+                List<Integer> currentHubs = labelHubs.get(current);
+                for (int i = 0; i < currentHubs.size(); i++) {
+                    if (hubToHub[currentHubs.get(i)] + labelDistances.get(current).get(i) <= distance) {
+                        covered = true;
+                        break;
+                    }
+                }
+                if (covered) {
+                    continue;
+                }
+                currentHubs.add(hubIndex);
+                labelDistances.get(current).add(distance);
+
+                for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                    int neighbor = graph.targets[e];
+                    double newDistance = distance + graph.distance[e];
+                    if (newDistance < searchDistances[neighbor]) {
+                        if (searchDistances[neighbor] == Double.POSITIVE_INFINITY) {
+                            touched.add(neighbor);
+                        }
+                        searchDistances[neighbor] = newDistance;
+                        queue.push(neighbor, newDistance);
+                    }
+                }
+            }
+
+            for (int node : touched) {
+                searchDistances[node] = Double.POSITIVE_INFINITY;
+            }
+            touched.clear();
+            for (int h : ownHubs) {
+                hubToHub[h] = Double.POSITIVE_INFINITY;
+            }
+            hubToHub[hubIndex] = Double.POSITIVE_INFINITY;
+        }
+
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + labelHubs.get(v).size();
+        }
+        int[] hubs = new int[offsets[n]];
+        double[] distances = new double[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            for (int i = 0; i < labelHubs.get(v).size(); i++) {
+                hubs[offsets[v] + i] = labelHubs.get(v).get(i);
+                distances[offsets[v] + i] = labelDistances.get(v).get(i);
+            }
+        }
+        return new HubLabels(offsets, hubs, distances, graph.fingerprint());
+    }
+
+    // Reads the index saved for this graph, or builds and saves a new one.
+    public static HubLabels loadOrBuild(RoadGraph graph, String filePath) {
+        HubLabels saved = load(filePath, graph);
+        if (saved != null) {
+            return saved;
+        }
+        HubLabels labels = build(graph);
+        labels.save(filePath);
+        return labels;
+    }
+
+    // Written to a temporary file and renamed into place, so an interrupted save leaves the
+    // old file, or none, rather than a truncated one.
+    public void save(String filePath) {
+        File target = new File(filePath).getAbsoluteFile();
+        File temporary;
+        try {
+            temporary = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(fingerprint);
+            out.writeInt(nodeCount());
+            out.writeInt(hubs.length);
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            for (int i = 0; i < hubs.length; i++) {
+                out.writeInt(hubs[i]);
+                out.writeDouble(distances[i]);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            temporary.delete();
+            return;
+        }
+        try {
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            temporary.delete();
+        }
+    }
+
+    // The labels saved for this graph, or null when the file is missing, was written for another
+    // graph, or is not exactly as long as its header says, as a file cut off mid-write would be.
+    public static HubLabels load(String filePath, RoadGraph graph) {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (file.length() < HEADER_BYTES || in.readInt() != MAGIC) {
+                return null;
+            }
+            long fingerprint = in.readLong();
+            int n = in.readInt();
+            int entries = in.readInt();
+            if (fingerprint != graph.fingerprint() || n != graph.nodeCount() || entries < 0
+                    || file.length() != HEADER_BYTES + 4L * (n + 1) + 12L * entries) {
+                return null;
+            }
+            int[] offsets = new int[n + 1];
+            for (int v = 0; v <= n; v++) {
+                offsets[v] = in.readInt();
+                if (v == 0 ? offsets[v] != 0 : offsets[v] < offsets[v - 1]) {
+                    return null;
+                }
+            }
+            if (offsets[n] != entries) {
+                return null;
+            }
+            int[] hubs = new int[entries];
+            double[] distances = new double[entries];
+            for (int i = 0; i < entries; i++) {
+                hubs[i] = in.readInt();
+                distances[i] = in.readDouble();
+                if (hubs[i] < 0 || hubs[i] >= n) {
+                    return null;
+                }
+            }
+            return new HubLabels(offsets, hubs, distances, fingerprint);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public static void main(String[] args) {
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.readDataFromCSV("Final_Connection_V3.csv");
+        RoadGraph graph = dijkstra.graph();
+        CityRegistry cities = dijkstra.cities();
+        HubLabels labels = loadOrBuild(graph, "Final_Connection_V3.csv.hublabels");
+        System.out.printf("Hub labels: %d cities, %d entries (%.1f per city)\n",
+                labels.nodeCount(), labels.labelEntries(), (double) labels.labelEntries() / labels.nodeCount());
+
+        // Cross-check every connected pair against the distance of the path Dijkstra finds.
+        int checked = 0;
+        int mismatches = 0;
+        for (int origin = 0; origin < graph.nodeCount(); origin++) {
+            int[] previousEdges = dijkstra.findShortestPaths(origin, null);
+            for (int destination = 0; destination < graph.nodeCount(); destination++) {
+                if (!dijkstra.hasPath(destination, previousEdges)) {
+                    continue;
+                }
+                double expected = dijkstra.calculatePathDistance(dijkstra.getShortestPath(origin, destination, previousEdges));
+                checked++;
+                if (Math.abs(labels.distance(origin, destination) - expected) > 1e-6) {
+                    mismatches++;
+                    System.out.printf("Mismatch %s -> %s: labels %.2f, Dijkstra %.2f\n", cities.city(origin),
+                            cities.city(destination), labels.distance(origin, destination), expected);
+                }
+            }
+        }
+        System.out.println("Checked " + checked + " pairs against Dijkstra, mismatches: " + mismatches);
+
+        Scanner scanner = new Scanner(System.in);
+        System.out.print("Enter source city: ");
+        String startCity = CityRegistry.normalize(scanner.nextLine());
+        System.out.print("Enter source State: ");
+        String startState = CityRegistry.normalize(scanner.nextLine());
+        System.out.print("Enter destination city: ");
+        String endCity = CityRegistry.normalize(scanner.nextLine());
+        System.out.print("Enter destination State: ");
+        String endState = CityRegistry.normalize(scanner.nextLine());
+        scanner.close();
+
+        double distance = labels.distance(cities.find(startCity, startState), cities.find(endCity, endState));
+        if (distance == Double.POSITIVE_INFINITY) {
+            System.out.println("No path found from " + startCity + " to " + endCity);
+        } else {
+            System.out.printf("Distance from %s to %s: %.2f\n", startCity, endCity, distance);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+import java.util.*;
+
+// 4-ary min-heap over node ids 0..capacity-1 with a double key per node.
+// Every node is in the heap at most once; decreaseKey moves it up in place
+// instead of pushing a duplicate entry.
+public class IndexedMinHeap {
+    private static final int ARITY = 4;
+
+    private final int[] heap;
+    private final int[] position;
+    private final double[] keys;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int node) {
+        return position[node] != -1;
+    }
+
+    public double key(int node) {
+        return keys[node];
+    }
+
+    public double minKey() {
+        return keys[heap[0]];
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    public void insert(int node, double key) {
+        keys[node] = key;
+        heap[size] = node;
+        position[node] = size;
+        siftUp(size++);
+    }
+
+    public void decreaseKey(int node, double key) {
+        keys[node] = key;
+        siftUp(position[node]);
+    }
+
+    // Inserts the node, or lowers its key if it is already queued with a larger one.
+    // Returns false when the node is queued with a key that is already as small.
+    public boolean push(int node, double key) {
+        if (position[node] == -1) {
+            insert(node, key);
+            return true;
+        }
+        if (key < keys[node]) {
+            decreaseKey(node, key);
+            return true;
+        }
+        return false;
+    }
+
+    public int poll() {
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    public void remove(int node) {
+        int index = position[node];
+        if (index == -1) {
+            return;
+        }
+        position[node] = -1;
+        size--;
+        if (index < size) {
+            int last = heap[size];
+            heap[index] = last;
+            position[last] = index;
+            siftDown(index);
+            siftUp(position[last]);
+        }
+    }
+
+    // Empties the heap in O(size) so it can be reused for the next search.
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        int node = heap[index];
+        double key = keys[node];
+        while (index > 0) {
+            int parent = (index - 1) / ARITY;
+            int parentNode = heap[parent];
+            if (keys[parentNode] <= key) {
+                break;
+            }
+            heap[index] = parentNode;
+            position[parentNode] = index;
+            index = parent;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+
+    private void siftDown(int index) {
+        int node = heap[index];
+        double key = keys[node];
+        while (true) {
+            int first = index * ARITY + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + ARITY, size);
+            int best = first;
+            double bestKey = keys[heap[first]];
+            for (int child = first + 1; child < last; child++) {
+                double childKey = keys[heap[child]];
+                if (childKey < bestKey) {
+                    best = child;
+                    bestKey = childKey;
+                }
+            }
+            if (bestKey >= key) {
+                break;
+            }
+            int bestNode = heap[best];
+            heap[index] = bestNode;
+            position[bestNode] = index;
+            index = best;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+}
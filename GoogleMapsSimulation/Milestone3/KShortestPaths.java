@@ -0,0 +1,236 @@
+import java.util.*;
+
+// Yen's algorithm for the k shortest loopless routes between two cities.
+// Every spur search works on per-query masks of blocked nodes and edges instead of editing the
+// graph, so concurrent queries can share one RoadGraph. A single shortest-path tree towards the
+// destination is reused by all spur searches: when the tree path from a spur node avoids every
+// mask it is the spur path outright, and otherwise its distances guide an A* search.
+public class KShortestPaths {
+    private final RoadGraph graph;
+
+    public KShortestPaths(RoadGraph graph) {
+        this.graph = graph;
+    }
+
+    // Up to k routes in order of increasing length; the first is the shortest route.
+    public List<RoutePath> find(int origin, int destination, int k) {
+        List<RoutePath> routes = new ArrayList<>();
+        int n = graph.nodeCount();
+        if (k <= 0 || origin < 0 || origin >= n || destination < 0 || destination >= n) {
+            return routes;
+        }
+
+        Query query = new Query(destination);
+        RoutePath first = query.spurPath(origin);
+        if (first == null) {
+            return routes;
+        }
+        routes.add(first);
+
+        PriorityQueue<RoutePath> candidates = new PriorityQueue<>(Comparator.comparingDouble(route -> route.distance));
+        Set<String> known = new HashSet<>();
+        known.add(Arrays.toString(first.nodes));
+
+        while (routes.size() < k) {
+            RoutePath previous = routes.get(routes.size() - 1);
+            double rootDistance = 0.0;
+            for (int spurIndex = 0; spurIndex < previous.nodes.length - 1; spurIndex++) {
+                int spur = previous.nodes[spurIndex];
+
+                // Routes sharing this root may not leave the spur the same way again,
+                // and the spur path may not revisit the root.
+                for (RoutePath route : routes) {
+                    if (route.nodes.length > spurIndex + 1 && sharesRoot(route.nodes, previous.nodes, spurIndex)) {
+                        query.blockEdge(route.edges[spurIndex]);
+                    }
+                }
+                for (int i = 0; i < spurIndex; i++) {
+                    query.blockNode(previous.nodes[i]);
+                }
+
+                RoutePath spurPath = query.spurPath(spur);
+                query.clearMasks();
+                if (spurPath != null) {
+                    int[] nodes = new int[spurIndex + spurPath.nodes.length];
+                    System.arraycopy(previous.nodes, 0, nodes, 0, spurIndex);
+                    System.arraycopy(spurPath.nodes, 0, nodes, spurIndex, spurPath.nodes.length);
+                    if (known.add(Arrays.toString(nodes))) {
+                        int[] edges = new int[nodes.length - 1];
+                        System.arraycopy(previous.edges, 0, edges, 0, spurIndex);
+                        System.arraycopy(spurPath.edges, 0, edges, spurIndex, spurPath.edges.length);
+                        candidates.add(new RoutePath(nodes, edges, rootDistance + spurPath.distance, spurPath.settled));
+                    }
+                }
+
+                rootDistance += graph.distance[previous.edges[spurIndex]];
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+            routes.add(candidates.poll());
+        }
+        return routes;
+    }
+
+    private static boolean sharesRoot(int[] route, int[] root, int length) {
+        for (int i = 0; i <= length; i++) {
+            if (route[i] != root[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Masks, the tree towards the destination and search arrays for one find() call.
+    private class Query {
+        private final int destination;
+        private final double[] toDestination;
+        private final int[] nextNode;
+        private final int[] nextEdge;
+        private final boolean[] blockedNodes;
+        private final boolean[] blockedEdges;
+        private final List<Integer> maskedNodes = new ArrayList<>();
+        private final List<Integer> maskedEdges = new ArrayList<>();
+        private final double[] distances;
+        private final int[] previousNodes;
+        private final int[] previousEdges;
+        private final IndexedMinHeap queue;
+        private final List<Integer> touched = new ArrayList<>();
+
+        Query(int destination) {
+            int n = graph.nodeCount();
+            this.destination = destination;
+            toDestination = new double[n];
+            nextNode = new int[n];
+            nextEdge = new int[n];
+            blockedNodes = new boolean[n];
+            blockedEdges = new boolean[graph.edgeCount()];
+            distances = new double[n];
+            previousNodes = new int[n];
+            previousEdges = new int[n];
+            queue = new IndexedMinHeap(n);
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            buildTree();
+        }
+
+        // Roads are two-way, so a Dijkstra from the destination gives every node's distance to it;
+        // nextEdge is the edge to take from a node towards the destination, the twin of the one relaxed.
+        private void buildTree() {
+            Arrays.fill(toDestination, Double.POSITIVE_INFINITY);
+            Arrays.fill(nextNode, -1);
+            toDestination[destination] = 0.0;
+            queue.insert(destination, 0.0);
+            while (!queue.isEmpty()) {
+                int current = queue.poll();
+                for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                    int neighbor = graph.targets[e];
+                    double newDistance = toDestination[current] + graph.distance[e];
+                    if (newDistance < toDestination[neighbor]) {
+                        toDestination[neighbor] = newDistance;
+                        nextNode[neighbor] = current;
+                        nextEdge[neighbor] = graph.reverse[e];
+                        queue.push(neighbor, newDistance);
+                    }
+                }
+            }
+        }
+
+        void blockNode(int node) {
+            if (!blockedNodes[node]) {
+                blockedNodes[node] = true;
+                maskedNodes.add(node);
+            }
+        }
+
+        void blockEdge(int edge) {
+            if (edge != -1 && !blockedEdges[edge]) {
+                blockedEdges[edge] = true;
+                maskedEdges.add(edge);
+            }
+        }
+
+        void clearMasks() {
+            for (int node : maskedNodes) {
+                blockedNodes[node] = false;
+            }
+            for (int edge : maskedEdges) {
+                blockedEdges[edge] = false;
+            }
+            maskedNodes.clear();
+            maskedEdges.clear();
+        }
+
+        // Shortest route from spur to the destination avoiding the masks, or null if there is none.
+        RoutePath spurPath(int spur) {
+            if (toDestination[spur] == Double.POSITIVE_INFINITY) {
+                return null;
+            }
+            RoutePath treePath = treePath(spur);
+            if (treePath != null) {
+                return treePath;
+            }
+
+            // Masks only make routes longer, so the unmasked distance to the destination is an
+            // admissible and consistent A* potential.
+            distances[spur] = 0.0;
+            touched.add(spur);
+            queue.insert(spur, toDestination[spur]);
+            int settled = 0;
+            RoutePath result = null;
+            while (!queue.isEmpty()) {
+                int current = queue.poll();
+                settled++;
+                if (current == destination) {
+                    result = RoutePath.fromPredecessors(spur, destination, previousNodes, previousEdges, distances[destination], settled);
+                    break;
+                }
+                for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                    int neighbor = graph.targets[e];
+                    if (blockedEdges[e] || blockedNodes[neighbor] || toDestination[neighbor] == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    double newDistance = distances[current] + graph.distance[e];
+                    if (newDistance < distances[neighbor]) {
+                        if (distances[neighbor] == Double.POSITIVE_INFINITY) {
+                            touched.add(neighbor);
+                        }
+                        distances[neighbor] = newDistance;
+                        previousNodes[neighbor] = current;
+                        previousEdges[neighbor] = e;
+                        queue.push(neighbor, newDistance + toDestination[neighbor]);
+                    }
+                }
+            }
+
+            for (int node : touched) {
+                distances[node] = Double.POSITIVE_INFINITY;
+            }
+            touched.clear();
+            queue.clear();
+            return result;
+        }
+
+        // The tree path from node, if none of its nodes or edges is masked.
+        private RoutePath treePath(int node) {
+            int length = 1;
+            for (int current = node; current != destination; current = nextNode[current]) {
+                if (blockedEdges[nextEdge[current]] || blockedNodes[nextNode[current]]) {
+                    return null;
+                }
+                length++;
+            }
+            int[] nodes = new int[length];
+            int[] edges = new int[length - 1];
+            int current = node;
+            for (int i = 0; i < length; i++) {
+                nodes[i] = current;
+                if (i + 1 < length) {
+                    edges[i] = nextEdge[current];
+                    current = nextNode[current];
+                }
+            }
+            return new RoutePath(nodes, edges, toDestination[node], 0);
+        }
+    }
+}
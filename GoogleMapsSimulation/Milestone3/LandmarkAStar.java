@@ -0,0 +1,53 @@
+import java.time.LocalDateTime;
+import java.util.*;
+
+// A* that uses landmark (ALT) lower bounds instead of straight-line distance.
+// On winding coastal roads these bounds are much tighter than the great-circle one.
+public class LandmarkAStar implements RouteEngine {
+    private final RoadGraph graph;
+    private final Landmarks landmarks;
+
+    public LandmarkAStar(RoadGraph graph, Landmarks landmarks) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+    }
+
+    @Override
+    public RoutePath route(int origin, int destination, LocalDateTime departure) {
+        int n = graph.nodeCount();
+        if (origin < 0 || origin >= n || destination < 0 || destination >= n) {
+            return RoutePath.notFound(0);
+        }
+        double[] distances = new double[n];
+        int[] previousNodes = new int[n];
+        int[] previousEdges = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap priorityQueue = new IndexedMinHeap(n);
+
+        distances[origin] = 0.0;
+        priorityQueue.insert(origin, landmarks.lowerBound(origin, destination));
+
+        int settled = 0;
+        while (!priorityQueue.isEmpty()) {
+            int current = priorityQueue.poll();
+            settled++;
+            if (current == destination) {
+                return RoutePath.fromPredecessors(origin, destination, previousNodes, previousEdges, distances[destination], settled);
+            }
+
+            for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                int neighbor = graph.targets[e];
+                double newDistance = distances[current] + graph.distance[e];
+
+                if (newDistance < distances[neighbor]) {
+                    distances[neighbor] = newDistance;
+                    previousNodes[neighbor] = current;
+                    previousEdges[neighbor] = e;
+                    priorityQueue.push(neighbor, newDistance + landmarks.lowerBound(neighbor, destination));
+                }
+            }
+        }
+
+        return RoutePath.notFound(settled);
+    }
+}
@@ -0,0 +1,146 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+// Exact distances from a handful of landmark cities to every node, used by ALT as an A* potential.
+// By the triangle inequality |d(L, t) - d(L, v)| is a lower bound on d(v, t) for every landmark L;
+// roads are two-way, so the distance from a landmark and to it are the same table.
+public class Landmarks {
+    private static final int MAGIC = 0x414C5431; // "ALT1"
+
+    final int[] landmarks;
+    final float[][] distances;
+    private final long fingerprint;
+
+    private Landmarks(int[] landmarks, float[][] distances, long fingerprint) {
+        this.landmarks = landmarks;
+        this.distances = distances;
+        this.fingerprint = fingerprint;
+    }
+
+    public int count() {
+        return landmarks.length;
+    }
+
+    // Largest landmark bound on the distance from node to target, or 0 if none applies.
+    // Tables are floats, so the bound is shaved by the rounding error of the two entries.
+    public double lowerBound(int node, int target) {
+        double best = 0.0;
+        for (float[] row : distances) {
+            float fromNode = row[node];
+            float fromTarget = row[target];
+            if (fromNode == Float.POSITIVE_INFINITY || fromTarget == Float.POSITIVE_INFINITY) {
+                continue;
+            }
+            double bound = Math.abs(fromTarget - fromNode) - Math.ulp(fromTarget) - Math.ulp(fromNode);
+            if (bound > best) {
+                best = bound;
+            }
+        }
+        return best;
+    }
+
+    // Farthest-point selection: each new landmark is the node farthest from all landmarks chosen so far.
+    // A node no landmark reaches counts as infinitely far, so every component gets a landmark of its own.
+    public static Landmarks select(RoadGraph graph, int k) {
+        int n = graph.nodeCount();
+        k = Math.min(k, n);
+        int[] landmarks = new int[k];
+        float[][] distances = new float[k][];
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+
+        int next = 0;
+        for (int i = 0; i < k; i++) {
+            landmarks[i] = next;
+            double[] fromLandmark = Dijkstra.distancesFrom(graph, next);
+            distances[i] = new float[n];
+            for (int node = 0; node < n; node++) {
+                distances[i][node] = (float) fromLandmark[node];
+                nearest[node] = Math.min(nearest[node], fromLandmark[node]);
+            }
+            for (int node = 0; node < n; node++) {
+                if (nearest[node] > nearest[next]) {
+                    next = node;
+                }
+            }
+        }
+        return new Landmarks(landmarks, distances, graph.fingerprint());
+    }
+
+    // Reads the tables saved for this graph, or selects new landmarks and saves them when the
+    // file is missing or was written for a different graph.
+    public static Landmarks loadOrSelect(RoadGraph graph, String filePath, int k) {
+        Landmarks saved = load(filePath);
+        if (saved != null && saved.fingerprint == graph.fingerprint() && saved.count() == Math.min(k, graph.nodeCount())) {
+            return saved;
+        }
+        Landmarks landmarks = select(graph, k);
+        landmarks.save(filePath);
+        return landmarks;
+    }
+
+    // Written to a temporary file and renamed into place, so a reader running at the same
+    // time sees either the old file or the complete new one.
+    public void save(String filePath) {
+        File target = new File(filePath).getAbsoluteFile();
+        File temporary;
+        try {
+            temporary = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            int n = distances.length == 0 ? 0 : distances[0].length;
+            out.writeInt(MAGIC);
+            out.writeLong(fingerprint);
+            out.writeInt(landmarks.length);
+            out.writeInt(n);
+            for (int i = 0; i < landmarks.length; i++) {
+                out.writeInt(landmarks[i]);
+                for (float distance : distances[i]) {
+                    out.writeFloat(distance);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            temporary.delete();
+            return;
+        }
+        try {
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            temporary.delete();
+        }
+    }
+
+    public static Landmarks load(String filePath) {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            long fingerprint = in.readLong();
+            int k = in.readInt();
+            int n = in.readInt();
+            int[] landmarks = new int[k];
+            float[][] distances = new float[k][n];
+            for (int i = 0; i < k; i++) {
+                landmarks[i] = in.readInt();
+                for (int node = 0; node < n; node++) {
+                    distances[i][node] = in.readFloat();
+                }
+            }
+            return new Landmarks(landmarks, distances, fingerprint);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
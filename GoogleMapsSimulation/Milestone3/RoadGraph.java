@@ -0,0 +1,137 @@
+import java.util.*;
+
+// Immutable road network in compressed-sparse-row form.
+// The edges leaving node u are targets[offsets[u]] .. targets[offsets[u + 1] - 1],
+// and distance/speed/gradient are parallel arrays indexed by the same edge id.
+// reverse[e] is the id of the same road driven the other way, so targets[reverse[e]] is the source of e.
+public class RoadGraph {
+    final int[] offsets;
+    final int[] targets;
+    final int[] reverse;
+    final double[] distance;
+    final double[] speed;
+    final double[] gradient;
+
+    private RoadGraph(int[] offsets, int[] targets, int[] reverse, double[] distance, double[] speed, double[] gradient) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.reverse = reverse;
+        this.distance = distance;
+        this.speed = speed;
+        this.gradient = gradient;
+    }
+
+    public int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    // Returns the id of the first edge from source to target, or -1 if they are not directly connected.
+    public int findEdge(int source, int target) {
+        for (int e = offsets[source]; e < offsets[source + 1]; e++) {
+            if (targets[e] == target) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    // Identifies the network an index file was built for, so a changed CSV forces a rebuild.
+    public long fingerprint() {
+        long hash = nodeCount();
+        for (int u = 0; u < nodeCount(); u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                hash = hash * 31 + u;
+                hash = hash * 31 + targets[e];
+                hash = hash * 31 + Double.hashCode(distance[e]);
+            }
+        }
+        return hash;
+    }
+
+    static class Builder {
+        private int nodeCount;
+        private int edgeCount;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private double[] distance = new double[16];
+        private double[] speed = new double[16];
+        private double[] gradient = new double[16];
+        private final Set<Long> connected = new HashSet<>();
+
+        // Roads are two-way: both directions are stored with the same attributes,
+        // and a second row for an already connected pair is ignored.
+        public void addEdge(int source, int destination, double distance, double speed, double gradient) {
+            long key = source < destination
+                    ? ((long) source << 32) | destination
+                    : ((long) destination << 32) | source;
+            if (!connected.add(key)) {
+                return;
+            }
+            append(source, destination, distance, speed, gradient);
+            append(destination, source, distance, speed, gradient);
+        }
+
+        // Makes sure ids below nodeCount exist even if they have no roads.
+        public void ensureNodes(int nodeCount) {
+            this.nodeCount = Math.max(this.nodeCount, nodeCount);
+        }
+
+        private void append(int source, int destination, double distance, double speed, double gradient) {
+            if (edgeCount == sources.length) {
+                int capacity = edgeCount * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                this.distance = Arrays.copyOf(this.distance, capacity);
+                this.speed = Arrays.copyOf(this.speed, capacity);
+                this.gradient = Arrays.copyOf(this.gradient, capacity);
+            }
+            sources[edgeCount] = source;
+            targets[edgeCount] = destination;
+            this.distance[edgeCount] = distance;
+            this.speed[edgeCount] = speed;
+            this.gradient[edgeCount] = gradient;
+            edgeCount++;
+            nodeCount = Math.max(nodeCount, Math.max(source, destination) + 1);
+        }
+
+        // Counting sort by source; edges of one node keep the order they were added in.
+        // addEdge appends the two directions of a road next to each other, so edges e and e ^ 1
+        // before sorting are each other's reverse.
+        public RoadGraph build() {
+            int[] offsets = new int[nodeCount + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                offsets[sources[e] + 1]++;
+            }
+            for (int u = 0; u < nodeCount; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+
+            int[] next = Arrays.copyOf(offsets, nodeCount);
+            int[] slot = new int[edgeCount];
+            int[] sortedTargets = new int[edgeCount];
+            double[] sortedDistance = new double[edgeCount];
+            double[] sortedSpeed = new double[edgeCount];
+            double[] sortedGradient = new double[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                slot[e] = next[sources[e]]++;
+                sortedTargets[slot[e]] = targets[e];
+                sortedDistance[slot[e]] = distance[e];
+                sortedSpeed[slot[e]] = speed[e];
+                sortedGradient[slot[e]] = gradient[e];
+            }
+            int[] reverse = new int[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                reverse[slot[e]] = slot[e ^ 1];
+            }
+            return new RoadGraph(offsets, sortedTargets, reverse, sortedDistance, sortedSpeed, sortedGradient);
+        }
+    }
+}
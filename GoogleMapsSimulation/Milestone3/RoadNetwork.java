@@ -0,0 +1,139 @@
+import java.io.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One loaded dataset: road graph, city ids and hourly weather. A snapshot is never changed
+// after it is built; reading another file returns a new snapshot instead, so any number of
+// queries can share one and a reload cannot change the data under a query that is running.
+final class RoadNetwork {
+    static final RoadNetwork EMPTY = new RoadNetwork(new RoadGraph.Builder().build(), new CityRegistry(),
+            new WeatherData[0], null, 0);
+
+    final RoadGraph graph;
+    final CityRegistry cities;
+    final WeatherData[] weather;
+    final String graphFilePath;
+    // Increases with every reload; caches use it to tell which snapshot an entry came from.
+    final long version;
+    // Engines and indexes built for this snapshot, so they are dropped together with it.
+    final Map<Integer, RouteEngine> engines = new ConcurrentHashMap<>();
+    private volatile WeatherIndex weatherIndex;
+
+    private RoadNetwork(RoadGraph graph, CityRegistry cities, WeatherData[] weather, String graphFilePath, long version) {
+        this.graph = graph;
+        this.cities = cities;
+        this.weather = weather;
+        this.graphFilePath = graphFilePath;
+        this.version = version;
+    }
+
+    // New snapshot with the roads of the CSV and the weather of this one.
+    RoadNetwork withRoads(String csvFilePath) {
+        CityRegistry registry = cities.copy();
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        try (CsvReader csv = CsvReader.open(csvFilePath)) {
+            boolean firstLine = true;
+            while (csv.next()) {
+                if (firstLine) {
+                    firstLine = false;
+                    continue;
+                }
+                String stateOrigin = csv.normalized(0);
+                String stateDestination = csv.normalized(1);
+                String cityOrigin = csv.normalized(2);
+                String cityDestination = csv.normalized(3);
+                double distance = csv.number(4);
+                double speed = csv.number(5);
+                double gradient = csv.number(8);
+
+                if (!stateOrigin.equals(stateDestination)) {
+                    stateOrigin = stateOrigin.isEmpty() ? stateDestination : stateOrigin;
+                    stateDestination = stateDestination.isEmpty() ? stateOrigin : stateDestination;
+                }
+                builder.addEdge(registry.intern(cityOrigin, stateOrigin), registry.intern(cityDestination, stateDestination),
+                        distance, speed, gradient);
+            }
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace(); 
+        }
+        builder.ensureNodes(registry.size());
+        return new RoadNetwork(builder.build(), registry, weather, csvFilePath, version + 1);
+    }
+
+    // New snapshot with the weather of the file and the roads of this one.
+    RoadNetwork withWeather(String weatherFilePath) {
+        CityRegistry registry = cities.copy();
+        WeatherData[] weatherData = Arrays.copyOf(weather, Math.max(weather.length, registry.size()));
+        try (BufferedReader br = new BufferedReader(new FileReader(weatherFilePath))) {
+            String line;
+            boolean firstLine = true;
+            String[] firstLineData = null;
+            while ((line = br.readLine()) != null) {
+                if (firstLine) {
+                    firstLineData = line.split(",");
+                    firstLine = false;
+                    continue;
+                }
+                String[] parts = line.split(",");
+                String cityName = CityRegistry.normalize(parts[1]);
+                String stateName = CityRegistry.normalize(parts[0]);
+
+                double latitude = Double.parseDouble(parts[parts.length - 2].trim());
+                double longitude = Double.parseDouble(parts[parts.length - 1].trim());
+
+                WeatherData cityWeather = new WeatherData(latitude, longitude);
+                for (int i = 2; i < parts.length - 2; i++) {
+                    String dateTimeString = (firstLineData[i]).trim();
+
+                    if (!dateTimeString.equalsIgnoreCase("Latitude")) {  
+                        String conditions = CityRegistry.normalize(parts[i]);
+                        LocalDateTime dateTime = LocalDateTime.parse(dateTimeString, DateTimeFormatter.ofPattern("MM/dd/yyyy H:mm", Locale.ENGLISH));
+
+                        cityWeather.hourlyConditions.put(dateTime, conditions);
+                    }
+                }
+                int id = registry.intern(cityName, stateName);
+                City city = registry.city(id);
+                city.latitude = latitude;
+                city.longitude = longitude;
+                if (id >= weatherData.length) {
+                    weatherData = Arrays.copyOf(weatherData, Math.max(registry.size(), weatherData.length * 2));
+                }
+                weatherData[id] = cityWeather;
+            }
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace(); 
+        }
+        return new RoadNetwork(graph, registry, weatherData, graphFilePath, version + 1);
+    }
+
+    // Weather by city and hour as byte codes, built on first use and kept with the snapshot.
+    // Two threads may both build it the first time; either copy is equally valid.
+    WeatherIndex weatherIndex() {
+        WeatherIndex index = weatherIndex;
+        if (index == null) {
+            index = WeatherIndex.build(weather, Math.max(graph.nodeCount(), weather.length));
+            weatherIndex = index;
+        }
+        return index;
+    }
+
+    WeatherData weatherFor(int cityId) {
+        return cityId < weather.length ? weather[cityId] : null;
+    }
+
+    String weatherCondition(int cityId, LocalDateTime dateTime) {
+        WeatherData cityWeather = weatherFor(cityId);
+
+        if (cityWeather != null) {
+            String condition = cityWeather.hourlyConditions.get(dateTime.withMinute(0).withSecond(0).withNano(0));
+            if (condition != null) {
+                return condition;
+            }
+        }
+
+        return "Unknown";
+    }
+}
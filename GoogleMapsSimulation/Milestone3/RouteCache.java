@@ -0,0 +1,107 @@
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Bounded LRU cache for route answers, keyed by origin, destination, departure hour and preference.
+// Every entry belongs to one version of the loaded graph and weather; the first lookup made with a
+// newer version empties the cache, so a reload can never serve stale routes.
+public class RouteCache<V> {
+    static final class Key {
+        final int origin;
+        final int destination;
+        final LocalDateTime hour;
+        final int preference;
+
+        Key(int origin, int destination, LocalDateTime hour, int preference) {
+            this.origin = origin;
+            this.destination = destination;
+            this.hour = hour;
+            this.preference = preference;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Key other = (Key) obj;
+            return origin == other.origin && destination == other.destination
+                    && preference == other.preference && hour.equals(other.hour);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((origin * 31 + destination) * 31 + preference) * 31 + hour.hashCode();
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, V> entries;
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public RouteCache(int capacity) {
+        this.capacity = capacity;
+        // Access order makes the eldest entry the least recently used one.
+        this.entries = new LinkedHashMap<Key, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+                if (size() > RouteCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(Key key, long dataVersion) {
+        checkVersion(dataVersion);
+        V value = entries.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    public synchronized void put(Key key, V value, long dataVersion) {
+        checkVersion(dataVersion);
+        entries.put(key, value);
+    }
+
+    // Drops every entry, e.g. as soon as the data they were computed from is replaced.
+    public synchronized void invalidate() {
+        if (!entries.isEmpty()) {
+            invalidations++;
+            entries.clear();
+        }
+    }
+
+    private void checkVersion(long dataVersion) {
+        if (dataVersion != version) {
+            invalidate();
+            version = dataVersion;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized String stats() {
+        long lookups = hits + misses;
+        return String.format("entries %d/%d, hits %d, misses %d (hit rate %.1f%%), evictions %d, invalidations %d",
+                entries.size(), capacity, hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups, evictions, invalidations);
+    }
+}
@@ -0,0 +1,7 @@
+import java.time.LocalDateTime;
+
+// A point-to-point search over a loaded RoadGraph. Engines that ignore time
+// still take the departure so callers can switch between them freely.
+public interface RouteEngine {
+    RoutePath route(int origin, int destination, LocalDateTime departure);
+}
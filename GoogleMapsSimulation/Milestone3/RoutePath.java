@@ -0,0 +1,90 @@
+import java.util.*;
+
+// Compact answer to a point-to-point query: the node ids from origin to destination
+// and the route length, plus how many nodes the search had to settle to find it.
+// edges[i] is the RoadGraph edge from nodes[i] to nodes[i + 1], so the distance, speed and
+// gradient of every leg are array reads instead of a search through the neighbours.
+public class RoutePath {
+    final int[] nodes;
+    final int[] edges;
+    final double distance;
+    final int settled;
+
+    RoutePath(int[] nodes, int[] edges, double distance, int settled) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.distance = distance;
+        this.settled = settled;
+    }
+
+    static RoutePath notFound(int settled) {
+        return new RoutePath(new int[0], new int[0], Double.POSITIVE_INFINITY, settled);
+    }
+
+    static RoutePath single(int node, int settled) {
+        return new RoutePath(new int[]{node}, new int[0], 0.0, settled);
+    }
+
+    // Walks the predecessor arrays back from destination; only the route itself is copied out.
+    // previousEdges[v] is the edge the search reached v through.
+    static RoutePath fromPredecessors(int origin, int destination, int[] previousNodes, int[] previousEdges,
+                                      double distance, int settled) {
+        int length = 1;
+        for (int node = destination; node != origin; node = previousNodes[node]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        int[] edges = new int[length - 1];
+        int node = destination;
+        for (int i = length - 1; i > 0; i--) {
+            nodes[i] = node;
+            edges[i - 1] = previousEdges[node];
+            node = previousNodes[node];
+        }
+        nodes[0] = origin;
+        return new RoutePath(nodes, edges, distance, settled);
+    }
+
+    // Same route from the edge array alone: the source of edge e is targets[reverse[e]].
+    static RoutePath fromEdges(RoadGraph graph, int origin, int destination, int[] previousEdges, int settled) {
+        int length = 1;
+        for (int node = destination; node != origin; node = graph.targets[graph.reverse[previousEdges[node]]]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        int[] edges = new int[length - 1];
+        int node = destination;
+        for (int i = length - 1; i > 0; i--) {
+            nodes[i] = node;
+            edges[i - 1] = previousEdges[node];
+            node = graph.targets[graph.reverse[previousEdges[node]]];
+        }
+        nodes[0] = origin;
+        double distance = 0.0;
+        for (int edge : edges) {
+            distance += graph.distance[edge];
+        }
+        return new RoutePath(nodes, edges, distance, settled);
+    }
+
+    // Sum of the road lengths along the route, for searches that ordered it by another cost.
+    public double roadDistance(RoadGraph graph) {
+        double total = 0.0;
+        for (int edge : edges) {
+            total += graph.distance[edge];
+        }
+        return total;
+    }
+
+    public boolean found() {
+        return nodes.length > 0;
+    }
+
+    public List<City> cities(CityRegistry registry) {
+        List<City> path = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            path.add(registry.city(node));
+        }
+        return path;
+    }
+}
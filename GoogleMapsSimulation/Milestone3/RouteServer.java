@@ -0,0 +1,310 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.Executors;
+
+// Local HTTP service that loads the roads and weather once and then answers any number of
+// questions about them, each request on its own virtual thread. All answers are JSON.
+//
+//   GET /route?from=Key West,Florida&to=Detroit,Michigan&departure=11/11/2023 08:00[&engine=1..9]
+//   GET /alternatives?from=...&to=...[&k=4]
+//   GET /nearest?city=Miami,Florida[&k=5]
+//   GET /matrix?origins=Miami,Florida;Tampa,Florida&destinations=...&departure=...[&metric=distance|eta|gallons]
+//
+// Usage: java RouteServer [port] [roadsCsv] [weatherCsv]
+public class RouteServer {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm");
+    private static final int DEFAULT_ALTERNATIVES = 4;
+    private static final int DEFAULT_NEAREST = 5;
+
+    private final Dijkstra dijkstra;
+
+    public RouteServer(Dijkstra dijkstra) {
+        this.dijkstra = dijkstra;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String roadsFile = args.length > 1 ? args[1] : "Final_Connection_V3.csv";
+        String weatherFile = args.length > 2 ? args[2] : "collected Weather.csv";
+
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.readDataFromCSV(roadsFile);
+        dijkstra.readWeatherData(weatherFile);
+        RouteServer routes = new RouteServer(dijkstra);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/route", routes.endpoint(routes::route));
+        server.createContext("/alternatives", routes.endpoint(routes::alternatives));
+        server.createContext("/nearest", routes.endpoint(routes::nearest));
+        server.createContext("/matrix", routes.endpoint(routes::matrix));
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        System.out.printf("Serving %d cities on http://localhost:%d\n", dijkstra.graph().nodeCount(), port);
+    }
+
+    // Thrown by an endpoint to answer with an error status instead of a result.
+    static class RequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    interface Endpoint {
+        String answer(Map<String, String> parameters);
+    }
+
+    private HttpHandler endpoint(Endpoint endpoint) {
+        return exchange -> {
+            int status = 200;
+            String body;
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    throw new RequestException(405, "Only GET is supported");
+                }
+                body = endpoint.answer(parameters(exchange));
+            } catch (RequestException e) {
+                status = e.status;
+                body = "{\"error\":" + quote(e.getMessage()) + "}";
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                status = 500;
+                body = "{\"error\":" + quote(String.valueOf(e)) + "}";
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        };
+    }
+
+    private String route(Map<String, String> parameters) {
+        int origin = city(parameters, "from");
+        int destination = city(parameters, "to");
+        LocalDateTime departure = departure(parameters);
+        int engine = integer(parameters, "engine", 1);
+        if (engine < 1 || engine > 9) {
+            throw new RequestException(400, "engine must be between 1 and 9");
+        }
+
+        Trip trip = dijkstra.trip(origin, destination, departure, engine);
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"found\":").append(trip.route.found());
+        json.append(",\"distance\":").append(number(trip.route.distance));
+        json.append(",\"gallons\":").append(number(trip.totalGallons()));
+        json.append(",\"departure\":").append(quote(departure.format(TIME_FORMAT)));
+        json.append(",\"arrival\":").append(quote(trip.endTime().format(TIME_FORMAT)));
+        json.append(",\"path\":");
+        cities(json, trip.route.nodes);
+        json.append(",\"legs\":[");
+        for (int i = 0; i < trip.legCount(); i++) {
+            City city = trip.city(i);
+            json.append(i == 0 ? "{" : ",{");
+            json.append("\"city\":").append(quote(city.name));
+            json.append(",\"state\":").append(quote(city.state));
+            json.append(",\"distance\":").append(number(trip.legs.distance[i]));
+            json.append(",\"gallons\":").append(number(trip.legs.gallons[i]));
+            json.append(",\"eta\":").append(quote(trip.arrival(i).format(TIME_FORMAT)));
+            json.append(",\"weather\":").append(quote(trip.arrivalWeather(i)));
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private String alternatives(Map<String, String> parameters) {
+        int origin = city(parameters, "from");
+        int destination = city(parameters, "to");
+        int k = integer(parameters, "k", DEFAULT_ALTERNATIVES);
+
+        StringBuilder json = new StringBuilder("{\"routes\":[");
+        List<RoutePath> routes = dijkstra.alternatives(origin, destination, k);
+        for (int i = 0; i < routes.size(); i++) {
+            RoutePath route = routes.get(i);
+            json.append(i == 0 ? "{" : ",{");
+            json.append("\"distance\":").append(number(route.distance));
+            json.append(",\"path\":");
+            cities(json, route.nodes);
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private String nearest(Map<String, String> parameters) {
+        int origin = city(parameters, "city");
+        int k = integer(parameters, "k", DEFAULT_NEAREST);
+
+        StringBuilder json = new StringBuilder("{\"cities\":[");
+        int[] nearest = dijkstra.nearestCities(origin, k);
+        for (int i = 0; i < nearest.length; i++) {
+            City city = dijkstra.cities().city(nearest[i]);
+            json.append(i == 0 ? "{" : ",{");
+            json.append("\"city\":").append(quote(city.name));
+            json.append(",\"state\":").append(quote(city.state));
+            json.append(",\"distance\":").append(number(dijkstra.route(origin, nearest[i], null).distance));
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private String matrix(Map<String, String> parameters) {
+        int[] origins = cityList(parameters, "origins");
+        int[] destinations = cityList(parameters, "destinations");
+        LocalDateTime departure = departure(parameters);
+        Dijkstra.Metric metric;
+        try {
+            metric = Dijkstra.Metric.valueOf(parameters.getOrDefault("metric", "distance").trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, "metric must be distance, eta or gallons");
+        }
+
+        double[][] table = dijkstra.matrix(origins, destinations, departure, metric);
+        StringBuilder json = new StringBuilder("{\"metric\":").append(quote(metric.name().toLowerCase(Locale.ROOT)));
+        json.append(",\"origins\":");
+        cities(json, origins);
+        json.append(",\"destinations\":");
+        cities(json, destinations);
+        json.append(",\"values\":[");
+        for (int row = 0; row < table.length; row++) {
+            json.append(row == 0 ? "[" : ",[");
+            for (int column = 0; column < table[row].length; column++) {
+                json.append(column == 0 ? "" : ",").append(number(table[row][column]));
+            }
+            json.append(']');
+        }
+        return json.append("]}").toString();
+    }
+
+    // A "City,State" parameter, resolved to its id.
+    private int city(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new RequestException(400, "missing parameter " + name + " (City,State)");
+        }
+        return cityId(value);
+    }
+
+    // A list of "City,State" pairs separated by ';'.
+    private int[] cityList(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.isBlank()) {
+            throw new RequestException(400, "missing parameter " + name + " (City,State;City,State...)");
+        }
+        String[] pairs = value.split(";");
+        int[] ids = new int[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            ids[i] = cityId(pairs[i]);
+        }
+        return ids;
+    }
+
+    private int cityId(String pair) {
+        int comma = pair.lastIndexOf(',');
+        if (comma < 0) {
+            throw new RequestException(400, "expected City,State but got " + pair);
+        }
+        int id = dijkstra.cities().find(CityRegistry.normalize(pair.substring(0, comma)),
+                CityRegistry.normalize(pair.substring(comma + 1)));
+        if (id < 0) {
+            throw new RequestException(404, "unknown city " + pair.trim());
+        }
+        return id;
+    }
+
+    private static LocalDateTime departure(Map<String, String> parameters) {
+        String value = parameters.get("departure");
+        if (value == null) {
+            throw new RequestException(400, "missing parameter departure (MM/dd/yyyy HH:mm)");
+        }
+        try {
+            return LocalDateTime.parse(value.trim(), TIME_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new RequestException(400, "departure must look like MM/dd/yyyy HH:mm");
+        }
+    }
+
+    private static int integer(Map<String, String> parameters, String name, int fallback) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, name + " must be a whole number");
+        }
+    }
+
+    private static Map<String, String> parameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String part : query.split("&")) {
+            int equals = part.indexOf('=');
+            String name = equals < 0 ? part : part.substring(0, equals);
+            String value = equals < 0 ? "" : part.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private void cities(StringBuilder json, int[] nodes) {
+        CityRegistry registry = dijkstra.cities();
+        json.append('[');
+        for (int i = 0; i < nodes.length; i++) {
+            City city = registry.city(nodes[i]);
+            json.append(i == 0 ? "" : ",").append(quote(city.name + "," + city.state));
+        }
+        json.append(']');
+    }
+
+    // JSON has no infinity, so unreachable values come out as null.
+    static String number(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "null";
+        }
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
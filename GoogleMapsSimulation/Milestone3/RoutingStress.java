@@ -0,0 +1,106 @@
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Checks that one loaded Dijkstra can serve many threads at once. Every engine answers a fixed
+// set of queries on one thread first; then worker threads repeat random queries through route,
+// trip and matrix while another thread keeps reloading the same files, and every answer has to
+// match the single-threaded one.
+// Usage: java RoutingStress [threads] [queriesPerThread] [reloads]
+public class RoutingStress {
+    private static final int ENGINES = 9;
+    private static final int PAIRS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int reloads = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.readDataFromCSV("Final_Connection_V3.csv");
+        dijkstra.readWeatherData("collected Weather.csv");
+        int n = dijkstra.graph().nodeCount();
+        LocalDateTime departure = LocalDateTime.of(2023, 11, 11, 8, 0);
+
+        Random random = new Random(11);
+        int[] origins = new int[PAIRS];
+        int[] destinations = new int[PAIRS];
+        int[] minutes = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            origins[i] = random.nextInt(n);
+            destinations[i] = random.nextInt(n);
+            minutes[i] = random.nextInt(24 * 60);
+        }
+
+        double[][] expectedDistance = new double[ENGINES + 1][PAIRS];
+        LocalDateTime[] expectedArrival = new LocalDateTime[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            LocalDateTime start = departure.plusMinutes(minutes[i]);
+            for (int choice = 1; choice <= ENGINES; choice++) {
+                expectedDistance[choice][i] = dijkstra.engine(choice).route(origins[i], destinations[i], start).distance;
+            }
+            expectedArrival[i] = dijkstra.trip(origins[i], destinations[i], start, 1).endTime();
+        }
+        double[][] expectedMatrix = dijkstra.matrix(origins, destinations, departure, Dijkstra.Metric.GALLONS);
+
+        AtomicLong answered = new AtomicLong();
+        AtomicLong wrong = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        List<Future<?>> running = new ArrayList<>();
+        long begin = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            running.add(workers.submit(() -> {
+                Random local = new Random(seed);
+                for (int q = 0; q < queries; q++) {
+                    int i = local.nextInt(PAIRS);
+                    LocalDateTime start = departure.plusMinutes(minutes[i]);
+                    int kind = local.nextInt(ENGINES + 2);
+                    boolean ok;
+                    if (kind == 0) {
+                        ok = dijkstra.trip(origins[i], destinations[i], start, 1).endTime().equals(expectedArrival[i]);
+                    } else if (kind == ENGINES + 1) {
+                        double[][] table = dijkstra.matrix(new int[] {origins[i]}, destinations, departure, Dijkstra.Metric.GALLONS);
+                        ok = Arrays.equals(table[0], expectedMatrix[i]);
+                    } else {
+                        double distance = dijkstra.engine(kind).route(origins[i], destinations[i], start).distance;
+                        ok = Double.compare(distance, expectedDistance[kind][i]) == 0;
+                    }
+                    answered.incrementAndGet();
+                    if (!ok) {
+                        wrong.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        Thread reloader = new Thread(() -> {
+            for (int r = 0; r < reloads; r++) {
+                if (r % 2 == 0) {
+                    dijkstra.readWeatherData("collected Weather.csv");
+                } else {
+                    dijkstra.readDataFromCSV("Final_Connection_V3.csv");
+                }
+            }
+        });
+        reloader.start();
+
+        for (Future<?> future : running) {
+            future.get();
+        }
+        reloader.join();
+        workers.shutdown();
+        long elapsed = System.nanoTime() - begin;
+
+        System.out.printf("%d threads, %d queries, %d reloads in %d ms (%.0f queries/s)\n", threads, answered.get(),
+                reloads, elapsed / 1_000_000, answered.get() * 1e9 / elapsed);
+        System.out.println("Trip cache: " + dijkstra.tripCache().stats());
+        System.out.println("Tree cache: " + dijkstra.trees().stats());
+        System.out.println(wrong.get() == 0 ? "All answers matched the single-threaded run"
+                : wrong.get() + " answers differed from the single-threaded run");
+        if (wrong.get() != 0) {
+            System.exit(1);
+        }
+    }
+}
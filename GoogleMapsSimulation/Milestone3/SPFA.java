@@ -0,0 +1,90 @@
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Queue-based Bellman-Ford (shortest path faster algorithm).
+// Only nodes whose distance just dropped are scanned again, and the search ends as soon as
+// nothing changes, so on ordinary road costs it runs close to Dijkstra. Unlike Dijkstra it
+// accepts negative edge costs; a best path of n or more edges means a negative cycle is reachable.
+// That is counted along the path, not per relaxation: with positive costs a node can still be
+// improved more than n times, while its best path never repeats a node.
+public class SPFA implements RouteEngine {
+    private final RoadGraph graph;
+    private final double[] edgeCosts;
+
+    public SPFA(RoadGraph graph) {
+        this(graph, graph.distance);
+    }
+
+    // edgeCosts is indexed by edge id, like RoadGraph.distance.
+    public SPFA(RoadGraph graph, double[] edgeCosts) {
+        this.graph = graph;
+        this.edgeCosts = edgeCosts;
+    }
+
+    @Override
+    public RoutePath route(int origin, int destination, LocalDateTime departure) {
+        int n = graph.nodeCount();
+        if (origin < 0 || origin >= n || destination < 0 || destination >= n) {
+            return RoutePath.notFound(0);
+        }
+        double[] distances = new double[n];
+        int[] previousNodes = new int[n];
+        int[] previousEdges = new int[n];
+        int settled = shortestPaths(origin, distances, previousNodes, previousEdges);
+        if (distances[destination] == Double.POSITIVE_INFINITY) {
+            return RoutePath.notFound(settled);
+        }
+        return RoutePath.fromPredecessors(origin, destination, previousNodes, previousEdges, distances[destination], settled);
+    }
+
+    // Fills distances, previousNodes (-1 for none) and the edges those predecessors were left by,
+    // and returns how many nodes were scanned.
+    public int shortestPaths(int start, double[] distances, int[] previousNodes, int[] previousEdges) {
+        int n = graph.nodeCount();
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(previousNodes, -1);
+        // Edges on the best path found so far to each node.
+        int[] lengths = new int[n];
+        boolean[] queued = new boolean[n];
+        // Circular FIFO; a node is in it at most once, so n slots are enough.
+        int[] queue = new int[n];
+        int head = 0;
+        int size = 0;
+
+        distances[start] = 0.0;
+        queue[0] = start;
+        queued[start] = true;
+        size = 1;
+
+        int scanned = 0;
+        while (size > 0) {
+            int current = queue[head];
+            head = head + 1 == n ? 0 : head + 1;
+            size--;
+            queued[current] = false;
+            scanned++;
+
+            for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                int neighbor = graph.targets[e];
+                double newDistance = distances[current] + edgeCosts[e];
+
+                if (newDistance < distances[neighbor]) {
+                    distances[neighbor] = newDistance;
+                    previousNodes[neighbor] = current;
+                    previousEdges[neighbor] = e;
+                    lengths[neighbor] = lengths[current] + 1;
+                    if (lengths[neighbor] >= n) {
+                        throw new RuntimeException("Graph contains a negative-weight cycle");
+                    }
+                    if (!queued[neighbor]) {
+                        int tail = head + size;
+                        queue[tail >= n ? tail - n : tail] = neighbor;
+                        queued[neighbor] = true;
+                        size++;
+                    }
+                }
+            }
+        }
+        return scanned;
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.*;
+
+// Checks SPFA against a plain Bellman-Ford on many small random graphs. With positive edge costs
+// it has to return the same distances and never report a negative cycle, however often a node is
+// improved; a road with a negative cost, driven both ways, has to be reported as one.
+// Usage: java SPFACheck [graphs] [maxNodes]
+public class SPFACheck {
+    public static void main(String[] args) {
+        int graphs = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int maxNodes = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+
+        Random random = new Random(5);
+        int wrong = 0;
+        int falseCycles = 0;
+        int missedCycles = 0;
+        for (int g = 0; g < graphs; g++) {
+            int n = 2 + random.nextInt(maxNodes - 1);
+            RoadGraph graph = randomGraph(random, n);
+            // Each direction gets its own cost, spread over several orders of magnitude, so that
+            // long cheap detours keep improving nodes first reached over an expensive road.
+            double[] costs = new double[graph.edgeCount()];
+            for (int e = 0; e < costs.length; e++) {
+                costs[e] = Math.pow(2, random.nextInt(20)) * (1 + random.nextDouble());
+            }
+            int start = random.nextInt(n);
+
+            double[] distances = new double[n];
+            try {
+                new SPFA(graph, costs).shortestPaths(start, distances, new int[n], new int[n]);
+                if (!Arrays.equals(distances, bellmanFord(graph, costs, start))) {
+                    wrong++;
+                }
+            } catch (RuntimeException e) {
+                falseCycles++;
+            }
+
+            if (graph.edgeCount() > 0) {
+                int e = random.nextInt(graph.edgeCount());
+                costs[e] = -costs[graph.reverse[e]] - 1;
+                try {
+                    new SPFA(graph, costs).shortestPaths(start, distances, new int[n], new int[n]);
+                    if (distances[graph.targets[e]] != Double.POSITIVE_INFINITY) {
+                        missedCycles++;
+                    }
+                } catch (RuntimeException expected) {
+                    // A reachable negative cycle is reported by throwing.
+                }
+            }
+        }
+
+        System.out.printf("%d graphs: %d wrong distances, %d false negative cycles, %d missed negative cycles\n",
+                graphs, wrong, falseCycles, missedCycles);
+        if (wrong + falseCycles + missedCycles != 0) {
+            System.exit(1);
+        }
+    }
+
+    private static RoadGraph randomGraph(Random random, int n) {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        // Dense, so most nodes are reached many times over.
+        for (int i = 0; i < n * n; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b) {
+                builder.addEdge(a, b, 1, 60, 0);
+            }
+        }
+        builder.ensureNodes(n);
+        return builder.build();
+    }
+
+    // n - 1 rounds over every edge; fine for the handful of nodes used here.
+    private static double[] bellmanFord(RoadGraph graph, double[] costs, int start) {
+        int n = graph.nodeCount();
+        double[] distances = new double[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[start] = 0.0;
+        for (int round = 1; round < n; round++) {
+            for (int u = 0; u < n; u++) {
+                if (distances[u] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    distances[graph.targets[e]] = Math.min(distances[graph.targets[e]], distances[u] + costs[e]);
+                }
+            }
+        }
+        return distances;
+    }
+}
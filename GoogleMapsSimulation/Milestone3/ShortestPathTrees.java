@@ -0,0 +1,110 @@
+import java.util.*;
+
+// Memory-bounded cache of full shortest-path trees, one per origin of the current data version.
+// Trees are built on road distance alone, so the departure time plays no part in the key.
+// A tree is the parent, parent edge and distance array of a one-to-all search, so once an origin is
+// cached every destination from it is answered by walking parents back, in O(path length).
+// Least recently used trees are evicted once their estimated size exceeds the budget.
+// A tree is only worth building for an origin that is asked for again: missedBefore tells the
+// first miss of an origin apart from later ones, so a one-off query can stop at its destination.
+public class ShortestPathTrees {
+    static final class Tree {
+        final int origin;
+        final int[] parent;
+        final int[] parentEdge;
+        final double[] dist;
+
+        Tree(int origin, int[] parent, int[] parentEdge, double[] dist) {
+            this.origin = origin;
+            this.parent = parent;
+            this.parentEdge = parentEdge;
+            this.dist = dist;
+        }
+
+        public RoutePath path(int destination) {
+            if (destination < 0 || destination >= dist.length || dist[destination] == Double.POSITIVE_INFINITY) {
+                return RoutePath.notFound(0);
+            }
+            return RoutePath.fromPredecessors(origin, destination, parent, parentEdge, dist[destination], 0);
+        }
+
+        // Three arrays plus object headers and the map entry pointing at them.
+        long bytes() {
+            return 4L * parent.length + 4L * parentEdge.length + 8L * dist.length + 144;
+        }
+    }
+
+    private final long budgetBytes;
+    private final LinkedHashMap<Integer, Tree> trees = new LinkedHashMap<>(16, 0.75f, true);
+    // Origins that missed once and have not had a tree built since; at most one per city.
+    private final Set<Integer> missedOnce = new HashSet<>();
+    private long usedBytes;
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ShortestPathTrees(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public synchronized Tree get(int origin, long dataVersion) {
+        checkVersion(dataVersion);
+        Tree tree = trees.get(origin);
+        if (tree == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return tree;
+    }
+
+    // A tree larger than the whole budget is not kept at all.
+    public synchronized void put(int origin, Tree tree, long dataVersion) {
+        checkVersion(dataVersion);
+        if (tree.bytes() > budgetBytes) {
+            return;
+        }
+        Tree previous = trees.put(origin, tree);
+        if (previous != null) {
+            usedBytes -= previous.bytes();
+        }
+        usedBytes += tree.bytes();
+        Iterator<Tree> eldest = trees.values().iterator();
+        while (usedBytes > budgetBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().bytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // True when the origin already missed once since the data was loaded, meaning it is now
+    // worth building its tree; the first call for an origin records it and returns false.
+    public synchronized boolean missedBefore(int origin, long dataVersion) {
+        checkVersion(dataVersion);
+        if (missedOnce.remove(origin)) {
+            return true;
+        }
+        missedOnce.add(origin);
+        return false;
+    }
+
+    public synchronized void invalidate() {
+        trees.clear();
+        missedOnce.clear();
+        usedBytes = 0;
+    }
+
+    private void checkVersion(long dataVersion) {
+        if (dataVersion != version) {
+            invalidate();
+            version = dataVersion;
+        }
+    }
+
+    public synchronized String stats() {
+        long lookups = hits + misses;
+        return String.format("trees %d, %d of %d bytes, hits %d, misses %d (hit rate %.1f%%), evictions %d",
+                trees.size(), usedBytes, budgetBytes, hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups, evictions);
+    }
+}
@@ -0,0 +1,240 @@
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.IntStream;
+
+// Customizable route planning with one cell per state.
+// The metric-independent part is the partition: which cities sit on a state border (they have a
+// road into another state) and the layout of a border-to-border clique per state. Customizing for
+// a metric fills every clique with shortest in-state costs, one state at a time in parallel.
+// A query then searches the full states of its two endpoints and only the cliques and border
+// roads everywhere else.
+public class StateOverlay {
+    private final RoadGraph graph;
+    final int[] cell;
+    final String[] cellNames;
+    // Cities of each state, and each city's index inside its own state.
+    final int[][] cellNodes;
+    final int[] localIndex;
+    // Border cities of each state, and each city's index among them (-1 for interior cities).
+    final int[][] boundary;
+    final int[] boundaryIndex;
+
+    public StateOverlay(RoadGraph graph, CityRegistry cities) {
+        this.graph = graph;
+        int n = graph.nodeCount();
+        Map<String, Integer> cellIds = new LinkedHashMap<>();
+        cell = new int[n];
+        for (int node = 0; node < n; node++) {
+            String state = cities.city(node).state;
+            Integer id = cellIds.get(state);
+            if (id == null) {
+                id = cellIds.size();
+                cellIds.put(state, id);
+            }
+            cell[node] = id;
+        }
+        cellNames = cellIds.keySet().toArray(new String[0]);
+
+        int cellCount = cellNames.length;
+        List<List<Integer>> members = new ArrayList<>();
+        List<List<Integer>> borders = new ArrayList<>();
+        for (int c = 0; c < cellCount; c++) {
+            members.add(new ArrayList<>());
+            borders.add(new ArrayList<>());
+        }
+        localIndex = new int[n];
+        boundaryIndex = new int[n];
+        Arrays.fill(boundaryIndex, -1);
+        for (int node = 0; node < n; node++) {
+            localIndex[node] = members.get(cell[node]).size();
+            members.get(cell[node]).add(node);
+            for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                if (cell[graph.targets[e]] != cell[node]) {
+                    boundaryIndex[node] = borders.get(cell[node]).size();
+                    borders.get(cell[node]).add(node);
+                    break;
+                }
+            }
+        }
+
+        cellNodes = new int[cellCount][];
+        boundary = new int[cellCount][];
+        for (int c = 0; c < cellCount; c++) {
+            cellNodes[c] = members.get(c).stream().mapToInt(Integer::intValue).toArray();
+            boundary[c] = borders.get(c).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public int cellCount() {
+        return cellNames.length;
+    }
+
+    // Fills the cliques for a metric given as a cost per edge id (see EdgeMetrics).
+    public Customized customize(double[] edgeCosts) {
+        double[][] cliques = new double[cellCount()][];
+        IntStream.range(0, cellCount()).parallel().forEach(c -> {
+            int b = boundary[c].length;
+            double[] clique = new double[b * b];
+            CellSearch search = new CellSearch(c, edgeCosts);
+            for (int i = 0; i < b; i++) {
+                search.run(boundary[c][i], -1);
+                for (int j = 0; j < b; j++) {
+                    clique[i * b + j] = search.distances[localIndex[boundary[c][j]]];
+                }
+            }
+            cliques[c] = clique;
+        });
+        return new Customized(edgeCosts, cliques);
+    }
+
+    // Dijkstra that never leaves one state, on local indices so it only touches that state's cities.
+    private class CellSearch {
+        final int cellId;
+        final double[] edgeCosts;
+        final double[] distances;
+        final int[] previousNodes;
+        final int[] previousEdges;
+        final IndexedMinHeap queue;
+
+        CellSearch(int cellId, double[] edgeCosts) {
+            this.cellId = cellId;
+            this.edgeCosts = edgeCosts;
+            int size = cellNodes[cellId].length;
+            distances = new double[size];
+            previousNodes = new int[size];
+            previousEdges = new int[size];
+            queue = new IndexedMinHeap(size);
+        }
+
+        // Distances from source to every city of the state; stops early once target (if any) is settled.
+        void run(int source, int target) {
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            queue.clear();
+            distances[localIndex[source]] = 0.0;
+            queue.insert(localIndex[source], 0.0);
+            while (!queue.isEmpty()) {
+                int current = queue.poll();
+                int node = cellNodes[cellId][current];
+                if (node == target) {
+                    return;
+                }
+                for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                    int neighbor = graph.targets[e];
+                    if (cell[neighbor] != cellId) {
+                        continue;
+                    }
+                    int local = localIndex[neighbor];
+                    double newDistance = distances[current] + edgeCosts[e];
+                    if (newDistance < distances[local]) {
+                        distances[local] = newDistance;
+                        previousNodes[local] = current;
+                        previousEdges[local] = e;
+                        queue.push(local, newDistance);
+                    }
+                }
+            }
+        }
+    }
+
+    // The overlay weighted for one metric; rebuilt by calling customize again when the metric changes.
+    public class Customized implements RouteEngine {
+        private final double[] edgeCosts;
+        private final double[][] cliques;
+
+        Customized(double[] edgeCosts, double[][] cliques) {
+            this.edgeCosts = edgeCosts;
+            this.cliques = cliques;
+        }
+
+        @Override
+        public RoutePath route(int origin, int destination, LocalDateTime departure) {
+            int n = graph.nodeCount();
+            if (origin < 0 || origin >= n || destination < 0 || destination >= n) {
+                return RoutePath.notFound(0);
+            }
+            int originCell = cell[origin];
+            int destinationCell = cell[destination];
+            double[] distances = new double[n];
+            int[] previousNodes = new int[n];
+            // The road a node was reached through, or -1 for a clique hop that needs unpacking afterwards.
+            int[] previousEdges = new int[n];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            distances[origin] = 0.0;
+            queue.insert(origin, 0.0);
+
+            int settled = 0;
+            while (!queue.isEmpty()) {
+                int current = queue.poll();
+                settled++;
+                if (current == destination) {
+                    return unpack(origin, destination, previousNodes, previousEdges, distances[destination], settled);
+                }
+                int currentCell = cell[current];
+                boolean open = currentCell == originCell || currentCell == destinationCell;
+
+                for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                    int neighbor = graph.targets[e];
+                    // Outside the endpoint states only border roads are used; cliques cover the inside.
+                    if (!open && cell[neighbor] == currentCell) {
+                        continue;
+                    }
+                    relax(queue, distances, previousNodes, previousEdges, current, neighbor, distances[current] + edgeCosts[e], e);
+                }
+                if (!open) {
+                    int[] border = boundary[currentCell];
+                    int b = border.length;
+                    int i = boundaryIndex[current];
+                    for (int j = 0; j < b; j++) {
+                        relax(queue, distances, previousNodes, previousEdges, current, border[j],
+                                distances[current] + cliques[currentCell][i * b + j], -1);
+                    }
+                }
+            }
+            return RoutePath.notFound(settled);
+        }
+
+        private void relax(IndexedMinHeap queue, double[] distances, int[] previousNodes, int[] previousEdges,
+                           int from, int to, double newDistance, int edge) {
+            if (newDistance < distances[to]) {
+                distances[to] = newDistance;
+                previousNodes[to] = from;
+                previousEdges[to] = edge;
+                queue.push(to, newDistance);
+            }
+        }
+
+        // Replaces every clique hop by the in-state route it stands for.
+        private RoutePath unpack(int origin, int destination, int[] previousNodes, int[] previousEdges,
+                                 double distance, int settled) {
+            List<Integer> reversed = new ArrayList<>();
+            List<Integer> reversedEdges = new ArrayList<>();
+            for (int node = destination; node != origin; node = previousNodes[node]) {
+                int previous = previousNodes[node];
+                if (previousEdges[node] != -1) {
+                    reversed.add(node);
+                    reversedEdges.add(previousEdges[node]);
+                    continue;
+                }
+                int cellId = cell[node];
+                CellSearch search = new CellSearch(cellId, edgeCosts);
+                search.run(previous, node);
+                for (int local = localIndex[node]; local != localIndex[previous]; local = search.previousNodes[local]) {
+                    reversed.add(cellNodes[cellId][local]);
+                    reversedEdges.add(search.previousEdges[local]);
+                }
+            }
+            reversed.add(origin);
+
+            int[] nodes = new int[reversed.size()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = reversed.get(nodes.length - 1 - i);
+            }
+            int[] edges = new int[reversedEdges.size()];
+            for (int i = 0; i < edges.length; i++) {
+                edges[i] = reversedEdges.get(edges.length - 1 - i);
+            }
+            return new RoutePath(nodes, edges, distance, settled);
+        }
+    }
+}
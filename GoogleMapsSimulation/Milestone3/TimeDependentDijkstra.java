@@ -0,0 +1,91 @@
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Dijkstra on travel time instead of distance, where an edge's time depends on when it is entered.
+// A leg costs its weather-penalized distance times (1 + gradient) over the edge speed, with the
+// weather of the city it leads to at the hour the car sets off, the same rule main uses for ETAs.
+//
+// Weather changes by the hour, so leaving a little later can occasionally mean arriving earlier.
+// Arrival times are taken as the best over waiting for any later hour at the tail, which makes
+// them non-decreasing in departure time (FIFO) and keeps plain label-setting exact.
+// TripSimulator replays a route found here with departure() and travelMinutes(), so the trip
+// printed for it arrives exactly when this search said it would.
+public class TimeDependentDijkstra implements RouteEngine {
+    private final RoadGraph graph;
+    private final WeatherIndex weather;
+
+    public TimeDependentDijkstra(RoadGraph graph, WeatherIndex weather) {
+        this.graph = graph;
+        this.weather = weather;
+    }
+
+    // Minutes to drive edge e when setting off at the given minute.
+    public double travelMinutes(int edge, double minute) {
+        int head = graph.targets[edge];
+        double distanceGradient = (graph.distance[edge] + weather.penalty(head, minute)) * (1 + graph.gradient[edge]);
+        return distanceGradient / graph.speed[edge] * 60;
+    }
+
+    // When a car ready at the given minute should set off over edge e to arrive earliest: right
+    // away, or at the start of a later hour whose weather more than makes up for the wait.
+    public double departure(int edge, double minute) {
+        double departure = minute;
+        double best = minute + travelMinutes(edge, minute);
+        for (double hour = Math.floor(minute / 60) * 60 + 60; hour < best; hour += 60) {
+            double arrival = hour + travelMinutes(edge, hour);
+            if (arrival < best) {
+                departure = hour;
+                best = arrival;
+            }
+        }
+        return departure;
+    }
+
+    // Earliest arrival over edge e for a car ready to leave at the given minute.
+    public double arrival(int edge, double minute) {
+        double departure = departure(edge, minute);
+        return departure + travelMinutes(edge, departure);
+    }
+
+    @Override
+    public RoutePath route(int origin, int destination, LocalDateTime departure) {
+        int n = graph.nodeCount();
+        if (origin < 0 || origin >= n || destination < 0 || destination >= n) {
+            return RoutePath.notFound(0);
+        }
+        double[] arrivals = new double[n];
+        int[] previousNodes = new int[n];
+        int[] previousEdges = new int[n];
+        Arrays.fill(arrivals, Double.POSITIVE_INFINITY);
+        IndexedMinHeap priorityQueue = new IndexedMinHeap(n);
+
+        double start = weather.minutesFrom(departure);
+        arrivals[origin] = start;
+        priorityQueue.insert(origin, start);
+
+        int settled = 0;
+        while (!priorityQueue.isEmpty()) {
+            int current = priorityQueue.poll();
+            settled++;
+            if (current == destination) {
+                // RoutePath reports road miles like the other engines, so main can print it unchanged.
+                RoutePath times = RoutePath.fromPredecessors(origin, destination, previousNodes, previousEdges, arrivals[destination], settled);
+                return new RoutePath(times.nodes, times.edges, times.roadDistance(graph), settled);
+            }
+
+            for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+                int neighbor = graph.targets[e];
+                double newArrival = arrival(e, arrivals[current]);
+
+                if (newArrival < arrivals[neighbor]) {
+                    arrivals[neighbor] = newArrival;
+                    previousNodes[neighbor] = current;
+                    previousEdges[neighbor] = e;
+                    priorityQueue.push(neighbor, newArrival);
+                }
+            }
+        }
+
+        return RoutePath.notFound(settled);
+    }
+}
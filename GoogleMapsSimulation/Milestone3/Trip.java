@@ -0,0 +1,72 @@
+import java.time.LocalDateTime;
+import java.util.*;
+
+// A planned trip: the route plus the leg-by-leg replay of ETA, fuel and weather that main prints.
+// The legs stay as the numbers TripSimulator wrote; names, dates and weather text are produced
+// here only when a caller asks for them to print or serialize a leg.
+class Trip {
+    final RoutePath route;
+    final LocalDateTime departure;
+    final TripSimulator.Legs legs;
+    private final CityRegistry cities;
+    private final WeatherIndex weather;
+
+    Trip(RoutePath route, LocalDateTime departure, TripSimulator.Legs legs, CityRegistry cities, WeatherIndex weather) {
+        this.route = route;
+        this.departure = departure;
+        this.legs = legs;
+        this.cities = cities;
+        this.weather = weather;
+    }
+
+    int legCount() {
+        return legs.count;
+    }
+
+    City city(int leg) {
+        return cities.city(legs.city[leg]);
+    }
+
+    String weather(int leg) {
+        return weather.condition(legs.weather[leg]);
+    }
+
+    String arrivalWeather(int leg) {
+        return weather.condition(legs.arrivalWeather[leg]);
+    }
+
+    // Legs are whole minutes apart, so this is the departure plus the minutes driven.
+    LocalDateTime arrival(int leg) {
+        return departure.plusMinutes(Math.round(legs.arrival[leg] - legs.arrival[0]));
+    }
+
+    double totalGallons() {
+        return legs.totalGallons;
+    }
+
+    LocalDateTime endTime() {
+        return legs.count == 0 ? departure : arrival(legs.count - 1);
+    }
+
+    List<City> path() {
+        return route.cities(cities);
+    }
+
+    // Rows for city_attributes.csv: City, State, Distance, Gallons, Weather, Latitude, Longitude.
+    List<List<String>> cityAttributes() {
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < legs.count; i++) {
+            City city = city(i);
+            List<String> attributes = new ArrayList<>();
+            attributes.add(city.name);
+            attributes.add(city.state);
+            attributes.add(String.valueOf(legs.distance[i]));
+            attributes.add(i == 0 ? String.valueOf(legs.gallons[i]) : String.format("%.2f", legs.gallons[i]));
+            attributes.add(weather(i));
+            attributes.add(String.valueOf(city.latitude));
+            attributes.add(String.valueOf(city.longitude));
+            rows.add(attributes);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,158 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+// Drives a route from a departure time: every leg is stretched by the weather at the city it
+// leads to and by the road gradient, then converted to time and fuel. Legs are written as
+// numbers into parallel arrays, with the weather as a WeatherIndex code, so replaying a trip
+// builds no strings or dates; Trip turns a leg into text only when it is printed.
+// Routes from TimeDependentDijkstra are driven by that engine's own timing instead, so the ETA
+// printed is the one its search minimized; see simulateTimed.
+// A simulator only reads its snapshot and can be shared by any number of threads.
+public class TripSimulator {
+    private final RoadNetwork data;
+    private final RoadGraph graph;
+    private final WeatherIndex weather;
+    // The first forecast hour in minutes since the epoch, to turn ETAs into index minutes.
+    private final double weatherStart;
+    // Set when the routes come from the time-dependent engine; null for every other engine.
+    private final TimeDependentDijkstra timing;
+
+    public TripSimulator(RoadNetwork data) {
+        this(data, null);
+    }
+
+    public TripSimulator(RoadNetwork data, TimeDependentDijkstra timing) {
+        this.data = data;
+        this.graph = data.graph;
+        this.weather = data.weatherIndex();
+        this.weatherStart = weather.hours == 0 ? 0.0 : epochMinutes(weather.start);
+        this.timing = timing;
+    }
+
+    // One entry per leg; entry 0 is the origin with no distance or fuel. Cities without weather
+    // data are driven through without a leg of their own, as main has always printed them.
+    static class Legs {
+        int count;
+        int[] city;
+        double[] distance;
+        double[] gallons;
+        // Arrival in minutes since the epoch (UTC); whole minutes after the departure, except
+        // on a time-dependent trip, which keeps the search's fractional minutes.
+        double[] arrival;
+        // Conditions when the leg starts, which is what the weather penalty and the CSV use.
+        byte[] weather;
+        // Conditions at the city when the car gets there, which is what main prints.
+        byte[] arrivalWeather;
+        double totalGallons;
+
+        Legs(int capacity) {
+            capacity = Math.max(1, capacity);
+            city = new int[capacity];
+            distance = new double[capacity];
+            gallons = new double[capacity];
+            arrival = new double[capacity];
+            weather = new byte[capacity];
+            arrivalWeather = new byte[capacity];
+        }
+
+        void clear() {
+            count = 0;
+            totalGallons = 0.0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= city.length) {
+                return;
+            }
+            city = Arrays.copyOf(city, capacity);
+            distance = Arrays.copyOf(distance, capacity);
+            gallons = Arrays.copyOf(gallons, capacity);
+            arrival = Arrays.copyOf(arrival, capacity);
+            weather = Arrays.copyOf(weather, capacity);
+            arrivalWeather = Arrays.copyOf(arrivalWeather, capacity);
+        }
+
+        private void add(int cityId, double legDistance, double legGallons, double arrivalMinute,
+                         byte legWeather, byte arrivalCode) {
+            city[count] = cityId;
+            distance[count] = legDistance;
+            gallons[count] = legGallons;
+            arrival[count] = arrivalMinute;
+            weather[count] = legWeather;
+            arrivalWeather[count] = arrivalCode;
+            count++;
+        }
+    }
+
+    static double epochMinutes(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60.0;
+    }
+
+    public Trip simulate(RoutePath route, LocalDateTime departure) {
+        Legs legs = new Legs(route.nodes.length);
+        simulate(route, epochMinutes(departure), legs);
+        return new Trip(route, departure, legs, data.cities, weather);
+    }
+
+    // Replays the route into legs, replacing whatever they held; allocates nothing once the
+    // arrays are as long as the route, so one Legs can be reused for a whole batch.
+    public void simulate(RoutePath route, double departure, Legs legs) {
+        legs.clear();
+        if (!route.found()) {
+            return;
+        }
+        legs.ensureCapacity(route.nodes.length);
+        if (timing != null) {
+            simulateTimed(route, departure, legs);
+            return;
+        }
+        double minute = departure;
+        int originId = route.nodes[0];
+        byte originWeather = weather.code(originId, minute - weatherStart);
+        legs.add(originId, 0.0, 0.0, minute, originWeather, originWeather);
+
+        for (int i = 1; i < route.nodes.length; i++) {
+            int cityId = route.nodes[i];
+            int edge = route.edges[i - 1];
+            if (data.weatherFor(cityId) == null) {
+                continue;
+            }
+            double distance = graph.distance[edge];
+            byte legWeather = weather.code(cityId, minute - weatherStart);
+            double distanceGradient = (distance + weather.penalty(legWeather)) * (1 + graph.gradient[edge]);
+            double duration = distanceGradient / graph.speed[edge];
+            double gallons = distanceGradient / 38;
+            minute += (long) (duration * 60);
+            legs.totalGallons += gallons;
+            legs.add(cityId, distance, gallons, minute, legWeather, weather.code(cityId, minute - weatherStart));
+        }
+    }
+
+    // The time-dependent engine's rules: the car waits at a city until the hour
+    // TimeDependentDijkstra.departure picks, roads into cities without weather data take time and
+    // fuel like any other, and minutes are not cut to whole ones, so the trip ends when the search
+    // said it would. Those cities still get no leg of their own, as main has always printed them,
+    // except the destination, whose arrival is the end of the trip.
+    private void simulateTimed(RoutePath route, double departure, Legs legs) {
+        double minute = departure - weatherStart;
+        int originId = route.nodes[0];
+        byte originWeather = weather.code(originId, minute);
+        legs.add(originId, 0.0, 0.0, departure, originWeather, originWeather);
+
+        for (int i = 1; i < route.nodes.length; i++) {
+            int cityId = route.nodes[i];
+            int edge = route.edges[i - 1];
+            minute = timing.departure(edge, minute);
+            byte legWeather = weather.code(cityId, minute);
+            double distanceGradient = (graph.distance[edge] + weather.penalty(legWeather)) * (1 + graph.gradient[edge]);
+            double gallons = distanceGradient / 38;
+            minute += timing.travelMinutes(edge, minute);
+            legs.totalGallons += gallons;
+            if (data.weatherFor(cityId) == null && i < route.nodes.length - 1) {
+                continue;
+            }
+            legs.add(cityId, graph.distance[edge], gallons, minute + weatherStart, legWeather, weather.code(cityId, minute));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+import java.time.LocalDateTime;
+import java.util.*;
+
+class WeatherData {
+    Map<LocalDateTime, String> hourlyConditions;
+    double latitude;
+    double longitude;
+
+    public WeatherData(double latitude, double longitude) {
+        this.hourlyConditions = new HashMap<>();
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+}
@@ -0,0 +1,115 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Hourly weather packed into one byte per city per hour, so a search can look up the
+// conditions for an edge with two array reads instead of building a LocalDateTime key.
+// The byte is a code into the distinct conditions of the file; code 0 is "Unknown", for hours
+// and cities the file has nothing for. Time is measured in minutes since the first hour in the file.
+public class WeatherIndex {
+    static final byte UNKNOWN = 0;
+
+    final LocalDateTime start;
+    final int hours;
+    private final int cityCount;
+    private final byte[] codes;
+    private final String[] conditions;
+    private final byte[] penalties;
+
+    private WeatherIndex(LocalDateTime start, int hours, int cityCount, byte[] codes, String[] conditions) {
+        this.start = start;
+        this.hours = hours;
+        this.cityCount = cityCount;
+        this.codes = codes;
+        this.conditions = conditions;
+        this.penalties = new byte[conditions.length];
+        for (int code = 1; code < conditions.length; code++) {
+            penalties[code] = (byte) penaltyMiles(conditions[code]);
+        }
+    }
+
+    // Extra miles a leg counts for in the given (normalized) weather condition.
+    public static int penaltyMiles(String condition) {
+        switch (condition) {
+            case "partlycloudy":
+                return 1;
+            case "mostlycloudy":
+                return 2;
+            case "cloudy":
+                return 3;
+            case "lightrain":
+                return 4;
+            case "heavyrain":
+                return 5;
+            default:
+                return 0;
+        }
+    }
+
+    public static WeatherIndex build(WeatherData[] weatherData, int cityCount) {
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+        for (WeatherData cityWeather : weatherData) {
+            if (cityWeather == null) {
+                continue;
+            }
+            for (LocalDateTime hour : cityWeather.hourlyConditions.keySet()) {
+                first = first == null || hour.isBefore(first) ? hour : first;
+                last = last == null || hour.isAfter(last) ? hour : last;
+            }
+        }
+        if (first == null) {
+            return new WeatherIndex(LocalDateTime.MIN, 0, cityCount, new byte[0], new String[]{"Unknown"});
+        }
+
+        int hours = (int) Duration.between(first, last).toHours() + 1;
+        byte[] codes = new byte[cityCount * hours];
+        Map<String, Integer> known = new HashMap<>();
+        List<String> conditions = new ArrayList<>();
+        conditions.add("Unknown");
+        for (int city = 0; city < Math.min(cityCount, weatherData.length); city++) {
+            if (weatherData[city] == null) {
+                continue;
+            }
+            for (Map.Entry<LocalDateTime, String> entry : weatherData[city].hourlyConditions.entrySet()) {
+                int hour = (int) Duration.between(first, entry.getKey()).toHours();
+                int code = known.computeIfAbsent(entry.getValue(), condition -> {
+                    conditions.add(condition);
+                    return conditions.size() - 1;
+                });
+                if (code > 0xFF) {
+                    throw new IllegalArgumentException("More than 255 distinct weather conditions");
+                }
+                codes[city * hours + hour] = (byte) code;
+            }
+        }
+        return new WeatherIndex(first, hours, cityCount, codes, conditions.toArray(new String[0]));
+    }
+
+    public double minutesFrom(LocalDateTime time) {
+        return Duration.between(start, time).getSeconds() / 60.0;
+    }
+
+    // Condition code for the hour containing the given minute; UNKNOWN outside the forecast.
+    public byte code(int city, double minute) {
+        if (minute < 0 || city >= cityCount) {
+            return UNKNOWN;
+        }
+        int hour = (int) (minute / 60);
+        return hour < hours ? codes[city * hours + hour] : UNKNOWN;
+    }
+
+    // Penalty for the hour containing the given minute; 0 outside the forecast, like "Unknown".
+    public int penalty(int city, double minute) {
+        return penalties[code(city, minute) & 0xFF];
+    }
+
+    public int penalty(byte code) {
+        return penalties[code & 0xFF];
+    }
+
+    // The normalized condition text a code stands for, as RoadNetwork.weatherCondition returns it.
+    public String condition(byte code) {
+        return conditions[code & 0xFF];
+    }
+}
@@ -3,118 +3,58 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
-class City {
-    String name;
-    String state;
-    double latitude;
-    double longitude;
-
-    public City(String name, String state) {
-        this.name = name;
-        this.state = state;
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-        City city = (City) obj;
-        return name.equals(city.name) && state.equals(city.state);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(name, state);
-    }
-
-    @Override
-    public String toString() {
-        return name;
-    }
-}
-
-class Edge {
-    City source;
-    City destination;
-    double distance;
-    double speed;
-    double gradient;
-
-    public Edge(City source, City destination, double distance, double speed, double gradient) {
-        this.source = source;
-        this.destination = destination;
-        this.distance = distance;
-        this.speed = speed;
-        this.gradient = gradient;
-    }
-}
-
-class WeatherData {
-    Map<LocalDateTime, String> hourlyConditions;
-    double latitude;
-    double longitude;
-
-    public WeatherData(double latitude, double longitude) {
-        this.hourlyConditions = new HashMap<>();
-        this.latitude = latitude;
-        this.longitude = longitude;
-    }
-
-}
-
 public class Dijkstra2 {
-    private static Map<City, List<Edge>> graph;
-    private static Map<City, WeatherData> weatherDataMap;
-    public static List<List<String>> cityAttributes;
-    private Set<City> visitedCities;
-
-    private Map<String, Double[]> cityCoordinates = new HashMap<>();
+    // Per instance, so two Dijkstra2 objects can hold different data and be queried side by side.
+    private RoadGraph graph;
+    private RoadGraph.Builder graphBuilder;
+    private CityRegistry cities;
+    private WeatherData[] weatherData;
+    // Alternatives offered after the best route on every request.
+    private static final int ALTERNATIVES = 3;
 
 
     public Dijkstra2() {
-        this.graph = new LinkedHashMap<>();
-        this.weatherDataMap = new HashMap<>();
-        this.visitedCities = new HashSet<>();
+        this.graph = new RoadGraph.Builder().build();
+        this.cities = new CityRegistry();
+        this.weatherData = new WeatherData[0];
     }
 
-    public void addEdge(City source, City destination, double distance, double speed, double gradient) {
-        if (!source.state.equals(destination.state)) {
-            source.state = source.state.isEmpty() ? destination.state : source.state;
-            destination.state = destination.state.isEmpty() ? source.state : destination.state;
+    public void addEdge(String sourceName, String sourceState, String destinationName, String destinationState,
+                        double distance, double speed, double gradient) {
+        if (!sourceState.equals(destinationState)) {
+            sourceState = sourceState.isEmpty() ? destinationState : sourceState;
+            destinationState = destinationState.isEmpty() ? sourceState : destinationState;
         }
 
-        List<Edge> sourceEdges = graph.computeIfAbsent(source, k -> new ArrayList<>());
-        List<Edge> destinationEdges = graph.computeIfAbsent(destination, k -> new ArrayList<>());
-        if (sourceEdges.stream().noneMatch(edge -> edge.destination.equals(destination))
-                && destinationEdges.stream().noneMatch(edge -> edge.destination.equals(source))) {
-            sourceEdges.add(new Edge(source, destination, distance, speed, gradient));
-            destinationEdges.add(new Edge(destination, source, distance, speed, gradient));
-        }
+        graphBuilder.addEdge(cities.intern(sourceName, sourceState), cities.intern(destinationName, destinationState),
+                distance, speed, gradient);
     }
 
     public void readDataFromCSV(String csvFilePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(csvFilePath))) {
-            String line;
+        graphBuilder = new RoadGraph.Builder();
+        try (CsvReader csv = CsvReader.open(csvFilePath)) {
             boolean firstLine = true;
-            while ((line = br.readLine()) != null) {
+            while (csv.next()) {
                 if (firstLine) {
                     firstLine = false;
                     continue;
                 }
-                String[] parts = line.split(",");
-                String stateOrigin = parts[0].trim().toLowerCase().replaceAll("\\s", "");
-                String stateDestination = parts[1].trim().toLowerCase().replaceAll("\\s", "");
-                String cityOrigin = parts[2].trim().toLowerCase().replaceAll("\\s", "");
-                String cityDestination = parts[3].trim().toLowerCase().replaceAll("\\s", "");
-                double distance = Double.parseDouble(parts[4].trim());
-                double speed = Double.parseDouble(parts[5].trim());
-                double gradient = Double.parseDouble(parts[8].trim());
-
-                addEdge(new City(cityOrigin, stateOrigin), new City(cityDestination, stateDestination), distance, speed, gradient);
+                String stateOrigin = csv.normalized(0);
+                String stateDestination = csv.normalized(1);
+                String cityOrigin = csv.normalized(2);
+                String cityDestination = csv.normalized(3);
+                double distance = csv.number(4);
+                double speed = csv.number(5);
+                double gradient = csv.number(8);
+
+                addEdge(cityOrigin, stateOrigin, cityDestination, stateDestination, distance, speed, gradient);
             }
         } catch (IOException | NumberFormatException e) {
             e.printStackTrace();
         }
+        graphBuilder.ensureNodes(cities.size());
+        graph = graphBuilder.build();
+        graphBuilder = null;
     }
 
     public void readWeatherData(String weatherFilePath) {
@@ -129,94 +69,45 @@ public class Dijkstra2 {
                     continue;
                 }
                 String[] parts = line.split(",");
-                String cityName = parts[1].trim().toLowerCase().replaceAll("\\s", "");
-                String stateName = parts[0].trim().toLowerCase().replaceAll("\\s", "");
+                String cityName = CityRegistry.normalize(parts[1]);
+                String stateName = CityRegistry.normalize(parts[0]);
 
                 double latitude = Double.parseDouble(parts[parts.length - 2].trim());
                 double longitude = Double.parseDouble(parts[parts.length - 1].trim());
 
-                WeatherData weatherData = new WeatherData(latitude, longitude);
+                WeatherData cityWeather = new WeatherData(latitude, longitude);
                 for (int i = 2; i < parts.length - 2; i++) {
                     String dateTimeString = (firstLineData[i]).trim();
 
                     if (!dateTimeString.equalsIgnoreCase("Latitude")) {
-                        String conditions = parts[i].trim().toLowerCase().replaceAll("\\s", "");
+                        String conditions = CityRegistry.normalize(parts[i]);
                         LocalDateTime dateTime = LocalDateTime.parse(dateTimeString, DateTimeFormatter.ofPattern("MM/dd/yyyy H:mm", Locale.ENGLISH));
 
-                        weatherData.hourlyConditions.put(dateTime, conditions);
+                        cityWeather.hourlyConditions.put(dateTime, conditions);
                     }
                 }
-                weatherDataMap.put(new City(cityName, stateName), weatherData);
+                int id = cities.intern(cityName, stateName);
+                if (id >= weatherData.length) {
+                    weatherData = Arrays.copyOf(weatherData, Math.max(cities.size(), weatherData.length * 2));
+                }
+                weatherData[id] = cityWeather;
             }
         } catch (IOException | NumberFormatException e) {
             e.printStackTrace();
         }
     }
 
-
-    public Map<City, City> findShortestPaths(City start, String startTime) {
-        Map<City, Double> distances = new HashMap<>();
-        Map<City, City> previousNodes = new HashMap<>();
-        PriorityQueue<City> priorityQueue = new PriorityQueue<>(Comparator.comparingDouble(distances::get));
-        Set<City> visited = new HashSet<>();
-
-        distances.put(start, 0.0);
-        priorityQueue.add(start);
-        cityAttributes = new ArrayList<>();
-
-        while (!priorityQueue.isEmpty()) {
-            City current = priorityQueue.poll();
-
-            if (visited.contains(current)) continue;
-
-            visited.add(current);
-
-            for (Edge edge : graph.getOrDefault(current, Collections.emptyList())) {
-                City neighbor = edge.destination;
-                double newDistance = distances.get(current) + edge.distance;
-
-                if (!distances.containsKey(neighbor) || newDistance < distances.get(neighbor)) {
-                    distances.put(neighbor, newDistance);
-                    previousNodes.put(neighbor, current);
-                    priorityQueue.add(neighbor);
-                }
-            }
-        }
-
-        return previousNodes;
-    }
-
-    public List<City> getShortestPath(City start, City destination, Map<City, City> previousNodes) {
-        List<City> path = new ArrayList<>();
-        City current = destination;
-
-        while (current != null && !current.equals(start)) {
-            path.add(current);
-            current = previousNodes.get(current);
-        }
-
-        if (current != null && current.equals(start)) {
-            path.add(start);
-            Collections.reverse(path);
-        }
-
-        return path;
+    private WeatherData weatherFor(int cityId) {
+        return cityId < weatherData.length ? weatherData[cityId] : null;
     }
 
     public double calculatePathDistance(List<City> path) {
         double distance = 0.0;
 
         for (int i = 0; i < path.size() - 1; i++) {
-            City current = path.get(i);
-            City next = path.get(i + 1);
-
-            if (graph.containsKey(current)) {
-                for (Edge edge : graph.get(current)) {
-                    if (edge.destination.equals(next)) {
-                        distance += edge.distance;
-                        break;
-                    }
-                }
+            int edge = graph.findEdge(path.get(i).id, path.get(i + 1).id);
+            if (edge != -1) {
+                distance += graph.distance[edge];
             } else {
                 System.out.println("The City name is not present in Data");
             }
@@ -247,319 +138,205 @@ public class Dijkstra2 {
         dijkstra.readWeatherData("collected_Weather.csv");
         Scanner scanner = new Scanner(System.in);
         System.out.print("Enter source city: ");
-        String startCity = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String startCity = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter source State: ");
-        String startState = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String startState = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter destination city: ");
-        String endCity = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String endCity = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter destination State: ");
-        String endState = scanner.nextLine().toLowerCase().replaceAll("\\s", "");
+        String endState = CityRegistry.normalize(scanner.nextLine());
         System.out.print("Enter Start Time (format: MM/DD/YYYY hh:mm):");
         String startTime = scanner.nextLine();
         System.out.print("Enter preference (1 for distance, 2 for gallons, 3 for safety): ");
         int preference = scanner.nextInt();
         scanner.close();
-        City origin = new City(startCity, startState);
-        System.out.println("Origin: " + origin);
-        City destination = new City(endCity, endState);
-
-        Map<City, City> previousNodes = dijkstra.findShortestPaths(origin, startTime);
-
-        List<City> shortestPath = new ArrayList<>();
-        if (previousNodes.containsKey(destination)) {
-            shortestPath = dijkstra.getShortestPath(origin, destination, previousNodes);
-            double totalGallons = 0.0;
-            double totaldistance =0.0;
-
-            double shortestDistance = dijkstra.calculatePathDistance(shortestPath);
-            City previousCity = new City("", "");
-
-            LocalDateTime currentDateTime = LocalDateTime.parse(startTime, DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm"));
-
+        CityRegistry cities = dijkstra.cities;
+        RoadGraph graph = dijkstra.graph;
+        int originId = cities.find(startCity, startState);
+        int destinationId = cities.find(endCity, endState);
+        System.out.println("Origin: " + startCity);
+
+        List<RoutePath> routes = new KShortestPaths(graph).find(originId, destinationId, 1 + ALTERNATIVES);
+        if (!routes.isEmpty() && originId != destinationId) {
+            dijkstra.printRoute(routes.get(0).cities(cities), originId, destinationId, startCity, endCity, startTime,
+                    preference, "city_attributes0.csv");
+        } else {
+            System.out.println("No path found from " + startCity + " to " + endCity);
+        }
 
-            WeatherData startWeather = dijkstra.weatherDataMap.get(origin);
-            if (startWeather != null) {
-                System.out.printf("Starting Latitude: %.2f, Longitude: %.2f\n", startWeather.latitude, startWeather.longitude);
+        if (routes.size() <= 1) {
+            System.out.println("No other paths found!");
+        } else {
+            for (int i = 1; i < routes.size(); i++) {
+                dijkstra.printRoute(routes.get(i).cities(cities), originId, destinationId, startCity, endCity, startTime,
+                        preference, "city_attributes" + i + ".csv");
             }
+        }
 
-
-            System.out.print(startCity);
-            if (!dijkstra.visitedCities.contains(origin)) {
-                double distance = 0.0;
-                double gallons = 0.0;
-                String weatherCondition = dijkstra.getWeatherCondition(origin, currentDateTime);
-
-
-                List<String> attributes = new ArrayList<>();
-                attributes.add(origin.name);
-                attributes.add(origin.state);
-                attributes.add(String.valueOf(distance));
-                attributes.add(String.valueOf(gallons));
-                attributes.add(weatherCondition);
-                attributes.add(String.valueOf(startWeather.latitude));
-                attributes.add(String.valueOf(startWeather.longitude));
-                cityAttributes.add(attributes);
-
-                currentDateTime = currentDateTime.plusMinutes(0);
-
-                System.out.printf("--distance %.2f miles", distance);
-                System.out.printf("--ETA: %s ", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
-                System.out.printf("--Gallons required: %.2f -- Weather: %s", gallons, weatherCondition);
-
-                dijkstra.visitedCities.add(origin);
-            }
-            for (int i = 0; i < shortestPath.size(); i++) {
-                City city = shortestPath.get(i);
-
-                if (i > 0) {
-                    double distance = 0.0;
-                    double speed = 0.0;
-                    double duration = 0.0;
-                    double gallons = 0.0;
-                    double gradient = 0.0;
-                    double distanceWeather = 0.0;
-                    double distanceGradient = 0.0;
-
-
-                    for (Edge edge : dijkstra.graph.get(shortestPath.get(i - 1))) {
-                        if (edge.destination.equals(city)) {
-                            distance = edge.distance;
-                            gradient = edge.gradient;
-                            WeatherData cityWeather = dijkstra.weatherDataMap.get(city);
-                            if (cityWeather != null) {
-                                distanceWeather = dijkstra.checkWeatherCondition(distance, dijkstra.getWeatherCondition(city, currentDateTime));
-                                distanceGradient = distanceWeather * (1 + gradient);
-                                speed = edge.speed;
-                                if (preference ==2){
-                                    distanceGradient= distance * (1+ gradient);
-                                    distance = distanceGradient ;
-
-                                }
-                                else if (preference ==3){
-                                    distanceWeather = dijkstra.checkWeatherCondition(distance, dijkstra.getWeatherCondition(city, currentDateTime));
-                                    distanceGradient = distanceWeather * (1+ gradient);
-                                    distance = distanceWeather;
-                                }
-                                else {
-                                    distance= distance;
-                                }
-                                duration = distance / speed;
-                                gallons = distance / 38;
-
-                                String formattedGallons = String.format("%.2f", gallons);
-                                List<String> attributes = new ArrayList<>();
-                                attributes.add(city.name);
-                                attributes.add(city.state);
-                                attributes.add(String.valueOf(distance));
-                                attributes.add(String.valueOf(formattedGallons));
-                                attributes.add(dijkstra.getWeatherCondition(city, currentDateTime));
-                                attributes.add(String.valueOf(cityWeather.latitude));
-                                attributes.add(String.valueOf(cityWeather.longitude));
-                                cityAttributes.add(attributes);
-                                currentDateTime = currentDateTime.plusMinutes((long) (duration * 60));
-                                totalGallons += gallons;
-                                totaldistance += distance;
-                                if (!dijkstra.visitedCities.contains(city)) {
-                                    System.out.print("---->");
-                                    System.out.print(city);
-                                    System.out.printf("--distance %.2f miles", distance);
-                                    System.out.printf("--ETA: %s ", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
-                                    System.out.printf("--Gallons required: %s -- Weather: %s", formattedGallons, dijkstra.getWeatherCondition(city, currentDateTime));
-                                    dijkstra.visitedCities.add(city);
-                                }
-
-                                if (city.equals(destination)) {
-                                    break;
-                                }
-                            }
-                        }
-                    }
+        // Every trade-off between distance, fuel and weather, with the best one for the preference marked.
+        if (!routes.isEmpty() && originId != destinationId) {
+            LocalDateTime departure = LocalDateTime.parse(startTime, DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm"));
+            List<ParetoSearch.Route> options = new ParetoSearch(graph, WeatherIndex.build(dijkstra.weatherData, graph.nodeCount()))
+                    .frontier(originId, destinationId, departure);
+            ParetoSearch.Route preferred = null;
+            for (ParetoSearch.Route option : options) {
+                if (preferred == null || option.cost(preference) < preferred.cost(preference)) {
+                    preferred = option;
                 }
-                previousCity = city;
             }
-
-            System.out.println();
-
-            System.out.println("\nCity Attributes for the Shortest Path:");
-            System.out.printf("%-20s%-20s%-20s%-20s%-20s%-20s%-20s\n", "City", "State", "Distance", "Gallons", "Weather", "Latitude", "Longitude");
-            for (List<String> attributes : cityAttributes) {
-                System.out.printf("%-20s%-20s%-20s%-20s%-20s%-20s%-20s\n", attributes.get(0), attributes.get(1), attributes.get(2), attributes.get(3), attributes.get(4), attributes.get(5), attributes.get(6));
+            System.out.println("\nRoute options (distance, gallons, weather penalty):");
+            for (ParetoSearch.Route option : options) {
+                StringBuilder path = new StringBuilder();
+                for (int node : option.nodes) {
+                    path.append(path.length() == 0 ? "" : "->").append(cities.city(node));
+                }
+                System.out.printf("%s %.2f miles, %.2f gallons, %.0f weather -- %s\n", option == preferred ? "*" : " ",
+                        option.distance, option.gallons, option.weatherPenalty, path);
             }
-            writeCityAttributesToCSV(cityAttributes, "city_attributes0.csv");
-
-            System.out.printf("\nShortest distance based on %s from %s to %s: %.2f\n, total gallons: %.2f\n",
-                    preference == 1 ? "distance" : (preference == 2 ? "gallons" : "safety"), origin, destination, totaldistance,totalGallons);;
-            System.out.printf("End Time: %s\n", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
-        } else {
-            System.out.println("No path found from " + origin + " to " + destination);
         }
+    }
 
-        if(shortestPath.size() <= 2) {
-            System.out.println("No other paths found!");
-        } else {
-            int cnt = 0;
-            int filecout = 1;
-            for(City city_curr : shortestPath) {
-                if(city_curr == origin || destination == city_curr) continue;
-                if(cnt >= 2) break;
-                ++cnt;
-                dijkstra.visitedCities.clear();
-                List<Edge> tmp_edges = graph.get(city_curr);
-                List<City> tmp_shortest_path = new ArrayList<>();
-                for(City tmp : shortestPath) {
-                    tmp_shortest_path.add(tmp);
-                }
+    // Replays a route leg by leg, printing ETA, gallons and weather the way the chosen preference counts them.
+    private void printRoute(List<City> shortestPath, int originId, int destinationId, String startCity, String endCity,
+                            String startTime, int preference, String csvFilePath) {
+        City origin = cities.city(originId);
+        City destination = cities.city(destinationId);
+        List<List<String>> cityAttributes = new ArrayList<>();
+        Set<City> visitedCities = new HashSet<>();
+        double totalGallons = 0.0;
+        double totaldistance =0.0;
 
-                graph.remove(city_curr);
+        double shortestDistance = calculatePathDistance(shortestPath);
+        
+        LocalDateTime currentDateTime = LocalDateTime.parse(startTime, DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm"));
 
-                //Do Djikstra's algo
-                previousNodes = dijkstra.findShortestPaths(origin, startTime);
-                shortestPath = new ArrayList<>();
-                if (previousNodes.containsKey(destination)) {
-                    shortestPath = dijkstra.getShortestPath(origin, destination, previousNodes);
-                    double totalGallons = 0.0;
-                    double totaldistance =0.0;
 
-                    double shortestDistance = dijkstra.calculatePathDistance(shortestPath);
-                    City previousCity = new City("", "");
+        WeatherData startWeather = weatherFor(originId);
+        if (startWeather != null) {
+            System.out.printf("Starting Latitude: %.2f, Longitude: %.2f\n", startWeather.latitude, startWeather.longitude);
+        }
 
-                    LocalDateTime currentDateTime = LocalDateTime.parse(startTime, DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm"));
 
+        System.out.print(startCity);
+        if (!visitedCities.contains(origin)) {
+            double distance = 0.0;
+            double gallons = 0.0;
+            String weatherCondition = getWeatherCondition(originId, currentDateTime);
 
-                    WeatherData startWeather = dijkstra.weatherDataMap.get(origin);
-                    if (startWeather != null) {
-                        System.out.printf("Starting Latitude: %.2f, Longitude: %.2f\n", startWeather.latitude, startWeather.longitude);
-                    }
 
+            List<String> attributes = new ArrayList<>();
+            attributes.add(origin.name);
+            attributes.add(origin.state);
+            attributes.add(String.valueOf(distance));
+            attributes.add(String.valueOf(gallons));
+            attributes.add(weatherCondition);
+            attributes.add(String.valueOf(startWeather.latitude));
+            attributes.add(String.valueOf(startWeather.longitude));
+            cityAttributes.add(attributes);
 
-                    System.out.print(startCity);
-                    if (!dijkstra.visitedCities.contains(origin)) {
-                        double distance = 0.0;
-                        double gallons = 0.0;
-                        String weatherCondition = dijkstra.getWeatherCondition(origin, currentDateTime);
+            currentDateTime = currentDateTime.plusMinutes(0);
 
+            System.out.printf("--distance %.2f miles", distance);
+            System.out.printf("--ETA: %s ", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
+            System.out.printf("--Gallons required: %.2f -- Weather: %s", gallons, weatherCondition);
 
-                        List<String> attributes = new ArrayList<>();
-                        attributes.add(origin.name);
-                        attributes.add(origin.state);
-                        attributes.add(String.valueOf(distance));
-                        attributes.add(String.valueOf(gallons));
-                        attributes.add(weatherCondition);
-                        attributes.add(String.valueOf(startWeather.latitude));
-                        attributes.add(String.valueOf(startWeather.longitude));
-                        cityAttributes.add(attributes);
+            visitedCities.add(origin);
+        }
+        for (int i = 0; i < shortestPath.size(); i++) {
+            City city = shortestPath.get(i);
 
-                        currentDateTime = currentDateTime.plusMinutes(0);
+            if (i > 0) {
+                double distance = 0.0;
+                double speed = 0.0;
+                double duration = 0.0;
+                double gallons = 0.0;
+                double gradient = 0.0;
+                double distanceWeather = 0.0;
+                double distanceGradient = 0.0;
+
+
+                int previousId = shortestPath.get(i - 1).id;
+                int cityId = city.id;
+                for (int edge = graph.offsets[previousId]; edge < graph.offsets[previousId + 1]; edge++) {
+                    if (graph.targets[edge] == cityId) {
+                        distance = graph.distance[edge];
+                        gradient = graph.gradient[edge];
+                        WeatherData cityWeather = weatherFor(cityId);
+                        if (cityWeather != null) {
+                            distanceWeather = checkWeatherCondition(distance, getWeatherCondition(cityId, currentDateTime));
+                            distanceGradient = distanceWeather * (1 + gradient);
+                            speed = graph.speed[edge];
+                            if (preference ==2){
+                                distanceGradient= distance * (1+ gradient);
+                                distance = distanceGradient ;
 
-                        System.out.printf("--distance %.2f miles", distance);
-                        System.out.printf("--ETA: %s ", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
-                        System.out.printf("--Gallons required: %.2f -- Weather: %s", gallons, weatherCondition);
+                            }
+                            else if (preference ==3){
+                                distanceWeather = checkWeatherCondition(distance, getWeatherCondition(cityId, currentDateTime));
+                                distanceGradient = distanceWeather * (1+ gradient);
+                                distance = distanceWeather;
+                            }
+                            else {
+                                distance= distance;
+                            }
+                            duration = distance / speed;
+                            gallons = distance / 38;
+
+                            String formattedGallons = String.format("%.2f", gallons);
+                            List<String> attributes = new ArrayList<>();
+                            attributes.add(city.name);
+                            attributes.add(city.state);
+                            attributes.add(String.valueOf(distance));
+                            attributes.add(String.valueOf(formattedGallons));
+                            attributes.add(getWeatherCondition(cityId, currentDateTime));
+                            attributes.add(String.valueOf(cityWeather.latitude));
+                            attributes.add(String.valueOf(cityWeather.longitude));
+                            cityAttributes.add(attributes);
+                            currentDateTime = currentDateTime.plusMinutes((long) (duration * 60));
+                            totalGallons += gallons;
+                            totaldistance += distance;
+                            if (!visitedCities.contains(city)) {
+                                System.out.print("---->");
+                                System.out.print(city);
+                                System.out.printf("--distance %.2f miles", distance);
+                                System.out.printf("--ETA: %s ", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
+                                System.out.printf("--Gallons required: %s -- Weather: %s", formattedGallons, getWeatherCondition(cityId, currentDateTime));
+                                visitedCities.add(city);
+                            }
 
-                        dijkstra.visitedCities.add(origin);
-                    }
-                   
-                    for (int i = 0; i < shortestPath.size(); i++) {
-                        City city = shortestPath.get(i);
-
-                        if (i > 0) {
-                            double distance = 0.0;
-                            double speed = 0.0;
-                            double duration = 0.0;
-                            double gallons = 0.0;
-                            double gradient = 0.0;
-                            double distanceWeather = 0.0;
-                            double distanceGradient = 0.0;
-
-
-                            for (Edge edge : dijkstra.graph.get(shortestPath.get(i - 1))) {
-                                if (edge.destination.equals(city)) {
-                                    distance = edge.distance;
-                                    gradient = edge.gradient;
-                                    WeatherData cityWeather = dijkstra.weatherDataMap.get(city);
-                                    if (cityWeather != null) {
-                                        distanceWeather = dijkstra.checkWeatherCondition(distance, dijkstra.getWeatherCondition(city, currentDateTime));
-                                        distanceGradient = distanceWeather * (1 + gradient);
-                                        speed = edge.speed;
-                                        if (preference ==2){
-                                            distanceGradient= distance * (1+ gradient);
-                                            distance = distanceGradient ;
-
-                                        }
-                                        else if (preference ==3){
-                                            distanceWeather = dijkstra.checkWeatherCondition(distance, dijkstra.getWeatherCondition(city, currentDateTime));
-                                            distanceGradient = distanceWeather * (1+ gradient);
-                                            distance = distanceWeather;
-                                        }
-                                        else {
-                                            distance= distance;
-                                        }
-                                        duration = distance / speed;
-                                        gallons = distance / 38;
-
-                                        String formattedGallons = String.format("%.2f", gallons);
-                                        List<String> attributes = new ArrayList<>();
-                                        attributes.add(city.name);
-                                        attributes.add(city.state);
-                                        attributes.add(String.valueOf(distance));
-                                        attributes.add(String.valueOf(formattedGallons));
-                                        attributes.add(dijkstra.getWeatherCondition(city, currentDateTime));
-                                        attributes.add(String.valueOf(cityWeather.latitude));
-                                        attributes.add(String.valueOf(cityWeather.longitude));
-                                        cityAttributes.add(attributes);
-                                        currentDateTime = currentDateTime.plusMinutes((long) (duration * 60));
-                                        totalGallons += gallons;
-                                        totaldistance += distance;
-                                        if (!dijkstra.visitedCities.contains(city)) {
-                                            System.out.print("---->");
-                                            System.out.print(city);
-                                            System.out.printf("--distance %.2f miles", distance);
-                                            System.out.printf("--ETA: %s ", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
-                                            System.out.printf("--Gallons required: %s -- Weather: %s", formattedGallons, dijkstra.getWeatherCondition(city, currentDateTime));
-                                            dijkstra.visitedCities.add(city);
-                                        }
-
-                                        if (city.equals(destination)) {
-                                            break;
-                                        }
-                                    }
-                                }
+                            if (city.equals(destination)) {
+                                break;
                             }
                         }
-                        previousCity = city;
                     }
-
-                    System.out.println();
-
-                    System.out.println("\nCity Attributes for the Shortest Path:");
-                    System.out.printf("%-20s%-20s%-20s%-20s%-20s%-20s%-20s\n", "City", "State", "Distance", "Gallons", "Weather", "Latitude", "Longitude");
-                    for (List<String> attributes : cityAttributes) {
-                        System.out.printf("%-20s%-20s%-20s%-20s%-20s%-20s%-20s\n", attributes.get(0), attributes.get(1), attributes.get(2), attributes.get(3), attributes.get(4), attributes.get(5), attributes.get(6));
-                    }
-                    writeCityAttributesToCSV(cityAttributes, "city_attributes"+String.valueOf(filecout)+".csv");
-                    filecout++;
-                    System.out.printf("\nShortest distance based on %s from %s to %s: %.2f\n, total gallons: %.2f\n",
-                            preference == 1 ? "distance" : (preference == 2 ? "gallons" : "safety"), origin, destination, totaldistance,totalGallons);;
-                    System.out.printf("End Time: %s\n", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
-                } else {
-                    System.out.println("No path found from " + origin + " to " + destination);
                 }
-
-                graph.put(city_curr, tmp_edges);
-                shortestPath = tmp_shortest_path;
             }
         }
+
+        System.out.println();
+
+        System.out.println("\nCity Attributes for the Shortest Path:");
+        System.out.printf("%-20s%-20s%-20s%-20s%-20s%-20s%-20s\n", "City", "State", "Distance", "Gallons", "Weather", "Latitude", "Longitude");
+        for (List<String> attributes : cityAttributes) {
+            System.out.printf("%-20s%-20s%-20s%-20s%-20s%-20s%-20s\n", attributes.get(0), attributes.get(1), attributes.get(2), attributes.get(3), attributes.get(4), attributes.get(5), attributes.get(6));
+        }
+        writeCityAttributesToCSV(cityAttributes, csvFilePath);
+
+        System.out.printf("\nShortest distance based on %s from %s to %s: %.2f\n, total gallons: %.2f\n",
+                preference == 1 ? "distance" : (preference == 2 ? "gallons" : "safety"), startCity, endCity, totaldistance,totalGallons);;
+        System.out.printf("End Time: %s\n", currentDateTime.format(DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm")));
     }
 
 
 
 
-    private String getWeatherCondition(City city, LocalDateTime dateTime) {
-        WeatherData weatherData = weatherDataMap.get(city);
+    private String getWeatherCondition(int cityId, LocalDateTime dateTime) {
+        WeatherData cityWeather = weatherFor(cityId);
 
-        if (weatherData != null) {
+        if (cityWeather != null) {
             LocalDateTime roundedDateTime = roundDownToNearestHour(dateTime);
-            if (weatherData.hourlyConditions.containsKey(roundedDateTime)) {
-                return weatherData.hourlyConditions.get(roundedDateTime);
+            if (cityWeather.hourlyConditions.containsKey(roundedDateTime)) {
+                return cityWeather.hourlyConditions.get(roundedDateTime);
             } else {
                 return "Unknown";
             }
@@ -575,27 +352,6 @@ public class Dijkstra2 {
 
 
     private double checkWeatherCondition(double distance, String condition) {
-        switch (condition) {
-            case "fair":
-                distance = distance + 0;
-                break;
-            case "partlycloudy":
-                distance = distance + 1;
-                break;
-            case "mostlycloudy":
-                distance = distance + 2;
-                break;
-            case "cloudy":
-                distance = distance + 3;
-                break;
-            case "lightrain":
-                distance = distance + 4;
-                break;
-            case "heavyrain":
-                distance = distance + 5;
-                break;
-
-        }
-        return distance;
+        return distance + WeatherIndex.penaltyMiles(condition);
     }
 }
\ No newline at end of file
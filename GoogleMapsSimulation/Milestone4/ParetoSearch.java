@@ -0,0 +1,172 @@
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Multi-criteria route search over distance, gallons and weather penalty in one run.
+// Each node keeps a bag of labels that no other label at that node beats on all three criteria;
+// the result is the set of trade-offs at the destination (its Pareto frontier).
+// Weather is read for the hour a label reaches each city, from its own driving time, as Dijkstra2
+// does when replaying a route. Because of that, a label on the way also has to arrive no later
+// than another to beat it: an earlier car is taken to be no worse off, as it would be if it could
+// wait for the later hour's weather. The search itself never waits, and bags are capped so it
+// stays fast on wide frontiers, so the frontier is a close approximation rather than exact.
+// At the destination only the three criteria count, since nothing is driven after it.
+public class ParetoSearch {
+    private static final int DEFAULT_MAX_LABELS = 16;
+
+    private final RoadGraph graph;
+    private final WeatherIndex weather;
+    private final int maxLabels;
+
+    public ParetoSearch(RoadGraph graph, WeatherIndex weather) {
+        this(graph, weather, DEFAULT_MAX_LABELS);
+    }
+
+    public ParetoSearch(RoadGraph graph, WeatherIndex weather, int maxLabels) {
+        this.graph = graph;
+        this.weather = weather;
+        this.maxLabels = maxLabels;
+    }
+
+    // One option on the frontier: the cities driven through and what the trip costs.
+    public static class Route {
+        final int[] nodes;
+        final double distance;
+        final double gallons;
+        final double weatherPenalty;
+
+        Route(int[] nodes, double distance, double gallons, double weatherPenalty) {
+            this.nodes = nodes;
+            this.distance = distance;
+            this.gallons = gallons;
+            this.weatherPenalty = weatherPenalty;
+        }
+
+        // 1 for distance, 2 for gallons, 3 for safety, matching Dijkstra2's preference prompt.
+        public double cost(int preference) {
+            return preference == 2 ? gallons : (preference == 3 ? weatherPenalty : distance);
+        }
+    }
+
+    private static class Label {
+        final int node;
+        final double distance;
+        final double gallons;
+        final double penalty;
+        final double minutes;
+        final Label parent;
+        boolean dominated;
+
+        Label(int node, double distance, double gallons, double penalty, double minutes, Label parent) {
+            this.node = node;
+            this.distance = distance;
+            this.gallons = gallons;
+            this.penalty = penalty;
+            this.minutes = minutes;
+            this.parent = parent;
+        }
+
+        // No worse on distance, gallons and weather penalty.
+        boolean costsNoMoreThan(Label other) {
+            return distance <= other.distance && gallons <= other.gallons && penalty <= other.penalty;
+        }
+
+        // No worse on any criterion and no later, so every way on from other is open to this label too.
+        boolean dominates(Label other) {
+            return costsNoMoreThan(other) && minutes <= other.minutes;
+        }
+    }
+
+    // Non-dominated routes from origin to destination, ordered by distance.
+    public List<Route> frontier(int origin, int destination, LocalDateTime departure) {
+        int n = graph.nodeCount();
+        List<Route> routes = new ArrayList<>();
+        if (origin < 0 || origin >= n || destination < 0 || destination >= n) {
+            return routes;
+        }
+
+        List<List<Label>> bags = new ArrayList<>(n);
+        for (int node = 0; node < n; node++) {
+            bags.add(new ArrayList<>());
+        }
+        PriorityQueue<Label> queue = new PriorityQueue<>(Comparator.comparingDouble((Label label) -> label.distance)
+                .thenComparingDouble(label -> label.gallons)
+                .thenComparingDouble(label -> label.penalty));
+        Label start = new Label(origin, 0.0, 0.0, 0.0, weather.minutesFrom(departure), null);
+        bags.get(origin).add(start);
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            Label label = queue.poll();
+            if (label.dominated) {
+                continue;
+            }
+            if (label.node == destination) {
+                continue;
+            }
+            for (int e = graph.offsets[label.node]; e < graph.offsets[label.node + 1]; e++) {
+                int neighbor = graph.targets[e];
+                double distance = graph.distance[e];
+                Label next = new Label(neighbor,
+                        label.distance + distance,
+                        label.gallons + distance * (1 + graph.gradient[e]) / 38,
+                        label.penalty + weather.penalty(neighbor, label.minutes),
+                        label.minutes + distance / graph.speed[e] * 60,
+                        label);
+                // Anything the destination already beats cannot lead to a new trade-off, whenever
+                // it arrives, because costs only grow from here.
+                if (dominatedBy(bags.get(destination), next, false) || !insert(bags.get(neighbor), next, neighbor != destination)) {
+                    continue;
+                }
+                queue.add(next);
+            }
+        }
+
+        for (Label label : bags.get(destination)) {
+            routes.add(toRoute(label));
+        }
+        routes.sort(Comparator.comparingDouble(route -> route.distance));
+        return routes;
+    }
+
+    private static boolean dominatedBy(List<Label> bag, Label label, boolean timed) {
+        for (Label other : bag) {
+            if (timed ? other.dominates(label) : other.costsNoMoreThan(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Adds the label unless it is dominated or the bag is full; labels it dominates are dropped.
+    // timed is false at the destination, where arrival time no longer matters.
+    private boolean insert(List<Label> bag, Label label, boolean timed) {
+        if (dominatedBy(bag, label, timed)) {
+            return false;
+        }
+        Iterator<Label> iterator = bag.iterator();
+        while (iterator.hasNext()) {
+            Label other = iterator.next();
+            if (timed ? label.dominates(other) : label.costsNoMoreThan(other)) {
+                other.dominated = true;
+                iterator.remove();
+            }
+        }
+        if (bag.size() >= maxLabels) {
+            return false;
+        }
+        bag.add(label);
+        return true;
+    }
+
+    private static Route toRoute(Label label) {
+        int length = 0;
+        for (Label current = label; current != null; current = current.parent) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        for (Label current = label; current != null; current = current.parent) {
+            nodes[--length] = current.node;
+        }
+        return new Route(nodes, label.distance, label.gallons, label.penalty);
+    }
+}
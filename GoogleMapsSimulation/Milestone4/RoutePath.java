@@ -0,0 +1,47 @@
+import java.util.*;
+
+// Compact answer to a point-to-point query: the node ids from origin to destination
+// and the route length, plus how many nodes the search had to settle to find it.
+public class RoutePath {
+    final int[] nodes;
+    final double distance;
+    final int settled;
+
+    RoutePath(int[] nodes, double distance, int settled) {
+        this.nodes = nodes;
+        this.distance = distance;
+        this.settled = settled;
+    }
+
+    static RoutePath notFound(int settled) {
+        return new RoutePath(new int[0], Double.POSITIVE_INFINITY, settled);
+    }
+
+    // Walks the predecessor array back from destination; only the route itself is copied out.
+    static RoutePath fromPredecessors(int origin, int destination, int[] previousNodes, double distance, int settled) {
+        int length = 1;
+        for (int node = destination; node != origin; node = previousNodes[node]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        int node = destination;
+        for (int i = length - 1; i > 0; i--) {
+            nodes[i] = node;
+            node = previousNodes[node];
+        }
+        nodes[0] = origin;
+        return new RoutePath(nodes, distance, settled);
+    }
+
+    public boolean found() {
+        return nodes.length > 0;
+    }
+
+    public List<City> cities(CityRegistry registry) {
+        List<City> path = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            path.add(registry.city(node));
+        }
+        return path;
+    }
+}
@@ -0,0 +1,81 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Hourly weather penalties packed into one byte per city per hour, so a search can look up
+// the conditions for an edge with two array reads instead of building a LocalDateTime key.
+// Time is measured in minutes since the first hour in the weather file.
+public class WeatherIndex {
+    final LocalDateTime start;
+    final int hours;
+    private final int cityCount;
+    private final byte[] penalty;
+
+    private WeatherIndex(LocalDateTime start, int hours, int cityCount, byte[] penalty) {
+        this.start = start;
+        this.hours = hours;
+        this.cityCount = cityCount;
+        this.penalty = penalty;
+    }
+
+    // Extra miles a leg counts for in the given (normalized) weather condition.
+    public static int penaltyMiles(String condition) {
+        switch (condition) {
+            case "partlycloudy":
+                return 1;
+            case "mostlycloudy":
+                return 2;
+            case "cloudy":
+                return 3;
+            case "lightrain":
+                return 4;
+            case "heavyrain":
+                return 5;
+            default:
+                return 0;
+        }
+    }
+
+    public static WeatherIndex build(WeatherData[] weatherData, int cityCount) {
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+        for (WeatherData cityWeather : weatherData) {
+            if (cityWeather == null) {
+                continue;
+            }
+            for (LocalDateTime hour : cityWeather.hourlyConditions.keySet()) {
+                first = first == null || hour.isBefore(first) ? hour : first;
+                last = last == null || hour.isAfter(last) ? hour : last;
+            }
+        }
+        if (first == null) {
+            return new WeatherIndex(LocalDateTime.MIN, 0, cityCount, new byte[0]);
+        }
+
+        int hours = (int) Duration.between(first, last).toHours() + 1;
+        byte[] penalty = new byte[cityCount * hours];
+        for (int city = 0; city < Math.min(cityCount, weatherData.length); city++) {
+            if (weatherData[city] == null) {
+                continue;
+            }
+            for (Map.Entry<LocalDateTime, String> entry : weatherData[city].hourlyConditions.entrySet()) {
+                int hour = (int) Duration.between(first, entry.getKey()).toHours();
+                penalty[city * hours + hour] = (byte) penaltyMiles(entry.getValue());
+            }
+        }
+        return new WeatherIndex(first, hours, cityCount, penalty);
+    }
+
+    public double minutesFrom(LocalDateTime time) {
+        return Duration.between(start, time).getSeconds() / 60.0;
+    }
+
+    // Penalty for the hour containing the given minute; 0 outside the forecast, like "Unknown".
+    public int penalty(int city, double minute) {
+        if (minute < 0 || city >= cityCount) {
+            return 0;
+        }
+        int hour = (int) (minute / 60);
+        return hour < hours ? penalty[city * hours + hour] : 0;
+    }
+}
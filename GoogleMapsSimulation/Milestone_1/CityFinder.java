@@ -58,37 +58,31 @@ public class CityFinder {
     private static List<CityDistance> readCSV(String filePath) {
         List<CityDistance> cityDistances = new ArrayList<>();
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            // Read the header line
-            String header = br.readLine();
-            String[] columnNames = header.split(",");
-
-            // Check if columnNames is not empty and has at least 3 elements
-            if (columnNames.length < 3) {
+        try (CsvReader csv = CsvReader.open(filePath)) {
+            // Check the header line has at least 3 columns
+            if (!csv.next() || csv.fieldCount() < 3) {
                 System.out.println("Invalid CSV file format. Ensure that it has at least 3 columns.");
                 return cityDistances;
             }
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split(",");
-                // Make sure the array has at least 3 elements
-                if (values.length >= 3) {
-                    String cityOrigin = values[0].toLowerCase().replaceAll("\\s", "");
-                    String cityDestination = values[1].toLowerCase().replaceAll("\\s", "");
+            while (csv.next()) {
+                // Make sure the row has at least 3 fields
+                if (csv.fieldCount() >= 3) {
+                    String cityOrigin = csv.normalized(0);
+                    String cityDestination = csv.normalized(1);
 
                     // Make sure the distance is a valid double
                     double distance;
                     try {
-                        distance = Double.parseDouble(values[2].trim());
+                        distance = csv.number(2);
                     } catch (NumberFormatException e) {
-                        System.out.println("Invalid distance value in the CSV file: " + values[2].trim());
+                        System.out.println("Invalid distance value in the CSV file: " + csv.text(2).trim());
                         continue;
                     }
 
                     cityDistances.add(new CityDistance(cityOrigin, cityDestination, distance));
                 } else {
-                    System.out.println("Invalid CSV line: " + Arrays.toString(values));
+                    System.out.println("Invalid CSV line: " + Arrays.toString(csv.fields()));
                 }
             }
         } catch (IOException e) {
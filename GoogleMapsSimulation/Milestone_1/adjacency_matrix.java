@@ -1,34 +1,40 @@
 import java.io.BufferedWriter;
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.FileWriter;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 public class adjacency_matrix {
+    // Cities per side of a Floyd-Warshall tile; 64x64 floats fit comfortably in L1/L2.
+    private static final int BLOCK = 64;
+    // The tab-separated dump is only readable (and writable in reasonable time) for small networks.
+    private static final int TEXT_DUMP_LIMIT = 500;
 
     public static void main(String[] args) {
         String csvFile = "Final_Dataset_Algo.csv"; // Replace with your CSV file path
         String outputTxtFile = "matrix_output.txt"; // Replace with the desired output file path
-        String csvDelimiter = ",";
-
-        try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
-            String line;
+        String outputBinFile = "matrix_output.bin";
 
+        try (CsvReader csv = CsvReader.open(csvFile)) {
             // Read the header line
-            br.readLine();
+            csv.next();
 
             // Map to store distances between cities
             Map<String, Map<String, Double>> distanceMap = new HashMap<>();
 
             // Read CSV and create a map of distances
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split(csvDelimiter);
-                String startCity = values[0];
-                String endCity = values[1];
-                double distance = Double.parseDouble(values[2]);
+            while (csv.next()) {
+                String startCity = csv.text(0);
+                String endCity = csv.text(1);
+                double distance = csv.number(2);
 
                 // Update the distance map
                 distanceMap.computeIfAbsent(startCity, k -> new HashMap<>()).put(endCity, distance);
@@ -37,35 +43,117 @@ public class adjacency_matrix {
 
             // Create and write the adjacency matrix to a text file
             String[] cities = distanceMap.keySet().toArray(new String[0]);
-            double[][] adjacencyMatrix = createAdjacencyMatrix(cities, distanceMap);
-            writeAdjacencyMatrixToFile(outputTxtFile, cities, adjacencyMatrix);
+            int numCities = cities.length;
+            float[] distances = createAdjacencyMatrix(cities, distanceMap);
+            if (numCities <= TEXT_DUMP_LIMIT) {
+                writeAdjacencyMatrixToFile(outputTxtFile, cities, distances);
+            }
+
+            // Turn direct distances into shortest road distances and store them in binary
+            shortestDistances(distances, numCities);
+            writeDistanceMatrixToFile(outputBinFile, cities, distances);
 
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private static double[][] createAdjacencyMatrix(String[] cities, Map<String, Map<String, Double>> distanceMap) {
+    // Row-major n x n matrix of direct distances, infinity where there is no road.
+    // Each city's neighbours are looked up once instead of probing the map for every cell.
+    private static float[] createAdjacencyMatrix(String[] cities, Map<String, Map<String, Double>> distanceMap) {
         int numCities = cities.length;
-        double[][] adjacencyMatrix = new double[numCities][numCities];
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < numCities; i++) {
+            index.put(cities[i], i);
+        }
 
+        float[] adjacencyMatrix = new float[numCities * numCities];
+        Arrays.fill(adjacencyMatrix, Float.POSITIVE_INFINITY);
         for (int i = 0; i < numCities; i++) {
-            for (int j = 0; j < numCities; j++) {
-                String city1 = cities[i];
-                String city2 = cities[j];
-
-                if (distanceMap.containsKey(city1) && distanceMap.get(city1).containsKey(city2)) {
-                    adjacencyMatrix[i][j] = distanceMap.get(city1).get(city2);
-                } else {
-                    adjacencyMatrix[i][j] = 0; // Mark as 0 if cities are not directly connected
-                }
+            for (Map.Entry<String, Double> neighbor : distanceMap.get(cities[i]).entrySet()) {
+                adjacencyMatrix[i * numCities + index.get(neighbor.getKey())] = neighbor.getValue().floatValue();
             }
         }
 
         return adjacencyMatrix;
     }
 
-    private static void writeAdjacencyMatrixToFile(String filePath, String[] cities, double[][] adjacencyMatrix) {
+    // Cache-blocked Floyd-Warshall. For each diagonal tile k, the tile itself is finished first,
+    // then the tiles in its row and column, then every other tile; the tiles within the last two
+    // phases are independent of each other and run in parallel on the common fork-join pool.
+    private static void shortestDistances(float[] distances, int numCities) {
+        for (int i = 0; i < numCities; i++) {
+            distances[i * numCities + i] = 0;
+        }
+        int blocks = (numCities + BLOCK - 1) / BLOCK;
+        for (int k = 0; k < blocks; k++) {
+            final int kb = k;
+            relaxBlock(distances, numCities, kb, kb, kb);
+            IntStream.range(0, blocks).parallel().filter(b -> b != kb).forEach(b -> {
+                relaxBlock(distances, numCities, kb, b, kb);
+                relaxBlock(distances, numCities, b, kb, kb);
+            });
+            IntStream.range(0, blocks * blocks).parallel().forEach(tile -> {
+                int ib = tile / blocks;
+                int jb = tile % blocks;
+                if (ib != kb && jb != kb) {
+                    relaxBlock(distances, numCities, ib, jb, kb);
+                }
+            });
+        }
+    }
+
+    // Relaxes tile (ib, jb) through every intermediate city of tile kb.
+    private static void relaxBlock(float[] distances, int numCities, int ib, int jb, int kb) {
+        int kEnd = Math.min((kb + 1) * BLOCK, numCities);
+        int iEnd = Math.min((ib + 1) * BLOCK, numCities);
+        int jEnd = Math.min((jb + 1) * BLOCK, numCities);
+        for (int k = kb * BLOCK; k < kEnd; k++) {
+            int kRow = k * numCities;
+            for (int i = ib * BLOCK; i < iEnd; i++) {
+                int iRow = i * numCities;
+                float throughK = distances[iRow + k];
+                if (throughK == Float.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int j = jb * BLOCK; j < jEnd; j++) {
+                    float candidate = throughK + distances[kRow + j];
+                    if (candidate < distances[iRow + j]) {
+                        distances[iRow + j] = candidate;
+                    }
+                }
+            }
+        }
+    }
+
+    // Binary layout: int n, n city names (writeUTF), then n * n big-endian floats in row-major order.
+    // The matrix is written through a memory map, and readers can map the same region back.
+    private static void writeDistanceMatrixToFile(String filePath, String[] cities, float[] distances) {
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "rw");
+             FileChannel channel = file.getChannel()) {
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(header);
+            out.writeInt(cities.length);
+            for (String city : cities) {
+                out.writeUTF(city);
+            }
+            out.flush();
+
+            long size = header.size() + 4L * distances.length;
+            file.setLength(size);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.put(header.toByteArray());
+            buffer.asFloatBuffer().put(distances);
+            buffer.force();
+
+            System.out.println("Distance matrix written to: " + filePath);
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void writeAdjacencyMatrixToFile(String filePath, String[] cities, float[] adjacencyMatrix) {
         try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(filePath)))) {
             writer.print("\t");
 
@@ -79,7 +167,9 @@ public class adjacency_matrix {
                 writer.print(cities[i] + "\t");
 
                 for (int j = 0; j < cities.length; j++) {
-                    writer.print(adjacencyMatrix[i][j] + "\t");
+                    // Mark as 0 if cities are not directly connected
+                    float distance = adjacencyMatrix[i * cities.length + j];
+                    writer.print((distance == Float.POSITIVE_INFINITY ? 0.0f : distance) + "\t");
                 }
 
                 writer.println();